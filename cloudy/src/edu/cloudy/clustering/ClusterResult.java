@@ -2,7 +2,7 @@ package edu.cloudy.clustering;
 
 import edu.cloudy.layout.WordGraph;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,7 +19,8 @@ public class ClusterResult
     private Word[] words;
     private Map<Word, Integer> wordIndex;
 
-    private double[][] similarity;
+    //rows of the matrix correspond to words
+    private SimilarityMatrix similarity;
     private WordGraph wordGraph;
 
     //index of node cluster, or -1 if the node is not present in G
@@ -37,7 +38,7 @@ public class ClusterResult
     //sum of weights of all edges inside the cluster
     private double[] sumIn;
 
-    public ClusterResult(List<Word> words, Map<ItemPair<Word>, Double> similarities, Map<Word, Integer> cluster, WordGraph wgInfo)
+    public ClusterResult(List<Word> words, SimilarityMatrix similarities, Map<Word, Integer> cluster, WordGraph wgInfo)
     {
         this.words = words.toArray(new Word[words.size()]);
         this.wordGraph = wgInfo;
@@ -96,7 +97,7 @@ public class ClusterResult
         }
     }
 
-    private void initialize(List<Word> words, Map<ItemPair<Word>, Double> similarityMap, Map<Word, Integer> clusterMap, WordGraph wgInfo)
+    private void initialize(List<Word> words, SimilarityMatrix similarityMatrix, Map<Word, Integer> clusterMap, WordGraph wgInfo)
     {
         //init clusters
         wordIndex = new HashMap();
@@ -112,14 +113,8 @@ public class ClusterResult
             groups.get(cluster[i]).add(w);
         }
 
-        //caching similarities
-        similarity = new double[words.size()][words.size()];
-        for (int i = 0; i < words.size(); i++)
-            for (int j = 0; j < words.size(); j++)
-            {
-                ItemPair<Word> wp = new ItemPair<Word>(words.get(i), words.get(j));
-                similarity[i][j] = similarityMap.getOrDefault(wp, 0.0);
-            }
+        //similarities in the order of words
+        similarity = (similarityMatrix.getWords().equals(words) ? similarityMatrix : similarityMatrix.project(words));
 
         //init count
         clusterCount = groups.keySet().size();
@@ -141,10 +136,10 @@ public class ClusterResult
         sumIn = new double[clusterCount];
         Arrays.fill(sumIn, 0);
         for (int i = 0; i < words.size(); i++)
-            for (int j = i + 1; j < words.size(); j++)
+            for (int j : similarity.neighbors(i))
             {
-                if (cluster[i] == cluster[j])
-                    sumIn[cluster[i]] += similarity[i][j];
+                if (j > i && cluster[i] == cluster[j])
+                    sumIn[cluster[i]] += similarity.get(i, j);
             }
 
         //checkConsistency();
@@ -209,10 +204,10 @@ public class ClusterResult
         }
 
         for (int i = 0; i < words.length; i++)
-            for (int j = i + 1; j < words.length; j++)
+            for (int j : similarity.neighbors(i))
             {
-                if (cluster[i] == cluster[j])
-                    sumIn2[cluster[i]] += similarity[i][j];
+                if (j > i && cluster[i] == cluster[j])
+                    sumIn2[cluster[i]] += similarity.get(i, j);
             }
 
         for (int i = 0; i < clusterCount; i++)
@@ -224,7 +219,7 @@ public class ClusterResult
 
     private double computeKiIn(int wIndex, int clusterId)
     {
-        Integer[] adj = wordGraph.nonZeroAdjacency(words[wIndex]);
+        int[] adj = wordGraph.adjacency(wordGraph.indexOf(words[wIndex]));
 
         double ki_in = 0;
         for (int i = 0; i < adj.length; i++)
@@ -235,7 +230,7 @@ public class ClusterResult
             if (cluster[adjIndex] != clusterId)
                 continue;
 
-            ki_in += similarity[adjIndex][wIndex];
+            ki_in += similarity.get(adjIndex, wIndex);
         }
 
         return ki_in;
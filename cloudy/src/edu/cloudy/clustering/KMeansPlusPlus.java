@@ -2,7 +2,7 @@ package edu.cloudy.clustering;
 
 import edu.cloudy.layout.WordGraph;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -21,7 +21,7 @@ public class KMeansPlusPlus implements IClusterAlgo
     private int K;
 
     private List<Word> words;
-    private Map<ItemPair<Word>, Double> similarities;
+    private SimilarityMatrix similarities;
 
     private WordGraph wordGraph;
 
@@ -35,7 +35,7 @@ public class KMeansPlusPlus implements IClusterAlgo
     {
         this.wordGraph = wordGraph;
         this.words = wordGraph.getWords();
-        this.similarities = wordGraph.getSimilarity();
+        this.similarities = wordGraph.getSimilarityMatrix();
 
         if (words.isEmpty())
             return null;
@@ -93,13 +93,16 @@ public class KMeansPlusPlus implements IClusterAlgo
 
     private Word getNextMean(List<Word> means)
     {
+        //the i-th word has index i in the graph
+        int[] meanIndex = indicesOf(means);
+
         List<Double> minDist = new ArrayList<Double>();
         for (int i = 0; i < words.size(); i++)
         {
             double minD = 123456789.0;
-            for (int j = 0; j < means.size(); j++)
+            for (int j = 0; j < meanIndex.length; j++)
             {
-                double d = wordGraph.distance(words.get(i), means.get(j));
+                double d = wordGraph.distance(i, meanIndex[j]);
                 minD = Math.min(minD, d);
             }
 
@@ -138,14 +141,16 @@ public class KMeansPlusPlus implements IClusterAlgo
     {
         assert (group.size() > 0);
 
+        int[] groupIndex = indicesOf(group);
+
         double dmin = -1;
         int bestIndex = -1;
-        for (int i = 0; i < group.size(); i++)
+        for (int i = 0; i < groupIndex.length; i++)
         {
             double mx = -1;
-            for (int j = 0; j < group.size(); j++)
+            for (int j = 0; j < groupIndex.length; j++)
             {
-                double d = wordGraph.distance(group.get(i), group.get(j));
+                double d = wordGraph.distance(groupIndex[i], groupIndex[j]);
                 if (mx == -1 || mx < d)
                     mx = d;
             }
@@ -167,6 +172,7 @@ public class KMeansPlusPlus implements IClusterAlgo
         for (int i = 0; i < means.size(); i++)
             median.add(means.get(i));
 
+        int[] meanIndex = indicesOf(means);
         for (int it = 0; it < 10; it++)
         {
             groups.clear();
@@ -176,9 +182,9 @@ public class KMeansPlusPlus implements IClusterAlgo
                 double minDis = 123456789.0;
                 int bestIndex = -1;
 
-                for (int j = 0; j < means.size(); j++)
+                for (int j = 0; j < meanIndex.length; j++)
                 {
-                    double d = wordGraph.distance(words.get(i), means.get(j));
+                    double d = wordGraph.distance(i, meanIndex[j]);
                     if (minDis > d)
                     {
                         minDis = d;
@@ -207,6 +213,11 @@ public class KMeansPlusPlus implements IClusterAlgo
         return new ClusterResult(words, similarities, groups, wordGraph);
     }
 
+    private int[] indicesOf(List<Word> list)
+    {
+        return list.stream().mapToInt(w -> wordGraph.indexOf(w)).toArray();
+    }
+
     private List<Word> getGroup(Map<Word, Integer> groups, int index)
     {
         List<Word> res = new ArrayList<Word>();
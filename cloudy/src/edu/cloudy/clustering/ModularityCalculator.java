@@ -2,6 +2,7 @@ package edu.cloudy.clustering;
 
 import edu.cloudy.layout.WordGraph;
 import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 /**
  * @author spupyrev
@@ -9,31 +10,37 @@ import edu.cloudy.nlp.Word;
  */
 public class ModularityCalculator
 {
-    public static double compute(Word[] words, double[][] similarities, int[] clusters, WordGraph sp)
+    /**
+     * The i-th row of the similarity matrix corresponds to the i-th word
+     */
+    public static double compute(Word[] words, SimilarityMatrix similarities, int[] clusters, WordGraph sp)
     {
         double res = 0;
 
         double m = 0;
         for (int i = 0; i < words.length; i++)
-            for (int j = i + 1; j < words.length; j++)
+            for (int j : similarities.neighbors(i))
             {
-                m += similarities[i][j];
+                if (j > i)
+                    m += similarities.get(i, j);
             }
 
         if (m < 1e-4)
             return 0.0;
 
+        //the order of words may differ from the order in the graph
+        double[] degree = new double[words.length];
+        for (int i = 0; i < words.length; i++)
+            degree[i] = sp.weightedDegree(sp.indexOf(words[i]));
+
         for (int i = 0; i < words.length; i++)
             for (int j = 0; j < words.length; j++)
             {
                 if (clusters[i] != clusters[j])
                     continue;
 
-                double w = (i != j ? similarities[i][j] : 0);
-                double deg_s = sp.weightedDegree(words[i]);
-                double deg_t = sp.weightedDegree(words[j]);
-
-                res += (w - deg_s * deg_t / (2.0 * m));
+                double w = (i != j ? similarities.get(i, j) : 0);
+                res += (w - degree[i] * degree[j] / (2.0 * m));
             }
 
         res /= (2.0 * m);
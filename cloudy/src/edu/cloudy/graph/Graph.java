@@ -14,6 +14,7 @@ import org.jgrapht.graph.SimpleWeightedGraph;
 import edu.cloudy.layout.WordGraph;
 import edu.cloudy.nlp.ItemPair;
 import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 import edu.cloudy.utils.UnorderedPair;
 
 public class Graph extends SimpleWeightedGraph<Vertex, Edge>
@@ -25,15 +26,48 @@ public class Graph extends SimpleWeightedGraph<Vertex, Edge>
         super(Edge.class);
     }
 
+    /**
+     * For sparse word graphs only the stored (non-zero) similarities become edges
+     */
     public Graph(WordGraph wordGraph)
     {
-        this(wordGraph.getWords(), wordGraph.getSimilarity());
+        super(Edge.class);
+
+        if (wordGraph.isSparse())
+            constructSparse(wordGraph.getSimilarityMatrix());
+        else
+            constructDense(wordGraph.getWords(), wordGraph.getSimilarity());
     }
 
     public Graph(List<Word> words, Map<ItemPair<Word>, Double> weights)
     {
         super(Edge.class);
 
+        constructDense(words, weights);
+    }
+
+    private void constructSparse(SimilarityMatrix similarity)
+    {
+        List<Word> words = similarity.getWords();
+        Vertex[] vertices = new Vertex[words.size()];
+        for (int i = 0; i < words.size(); i++)
+        {
+            Word w = words.get(i);
+            vertices[i] = new Vertex(w.word, w.weight, this);
+            addVertex(vertices[i]);
+        }
+
+        for (int i = 0; i < words.size(); i++)
+            for (int j : similarity.neighbors(i))
+                if (i < j)
+                {
+                    Edge e = addEdge(vertices[i], vertices[j]);
+                    setEdgeWeight(e, similarity.get(i, j));
+                }
+    }
+
+    private void constructDense(List<Word> words, Map<ItemPair<Word>, Double> weights)
+    {
         List<Vertex> vertices = new ArrayList<Vertex>();
         Map<Word, Vertex> wordToVertex = new HashMap<Word, Vertex>();
 
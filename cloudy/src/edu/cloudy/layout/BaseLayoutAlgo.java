@@ -2,7 +2,9 @@ package edu.cloudy.layout;
 
 import edu.cloudy.geom.BoundingBoxGenerator;
 import edu.cloudy.geom.SWCRectangle;
+import edu.cloudy.layout.mds.ScalingAlgo;
 import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 import java.util.stream.IntStream;
 
@@ -14,11 +16,12 @@ public abstract class BaseLayoutAlgo implements LayoutAlgo
 {
     protected WordGraph wordGraph;
     protected Word[] words;
-    protected double[][] similarity;
+    protected SimilarityMatrix similarity;
     protected SWCRectangle[] wordPositions;
 
     protected BoundingBoxGenerator bbGenerator;
     protected double aspectRatio;
+    protected ScalingAlgo scalingAlgo;
 
     public BaseLayoutAlgo()
     {
@@ -38,12 +41,18 @@ public abstract class BaseLayoutAlgo implements LayoutAlgo
         this.aspectRatio = aspectRatio;
     }
 
+    @Override
+    public void setScalingAlgo(ScalingAlgo scalingAlgo)
+    {
+        this.scalingAlgo = scalingAlgo;
+    }
+
     @Override
     public final LayoutResult layout(WordGraph wordGraph)
     {
         this.wordGraph = wordGraph;
         this.words = wordGraph.convertWordsToArray();
-        this.similarity = wordGraph.convertSimilarityToArray();
+        this.similarity = wordGraph.getSimilarityMatrix();
         this.wordPositions = new SWCRectangle[words.length];
 
         run();
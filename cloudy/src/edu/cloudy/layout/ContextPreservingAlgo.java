@@ -30,7 +30,7 @@ public class ContextPreservingAlgo extends BaseLayoutAlgo
     protected void run()
     {
         //initial layout
-        LayoutResult initialLayout = new MDSAlgo(false).layout(wordGraph);
+        LayoutResult initialLayout = new MDSAlgo(false, scalingAlgo).layout(wordGraph);
         IntStream.range(0, words.length).forEach(i -> wordPositions[i] = initialLayout.getWordPosition(words[i]));
 
         //compute Delaunay
@@ -42,7 +42,7 @@ public class InflateAndPushAlgo extends BaseLayoutAlgo
     private void initialPlacement(double scale)
     {
         //find initial placement by mds layout
-        MDSAlgo algo = new MDSAlgo();
+        MDSAlgo algo = new MDSAlgo(true, scalingAlgo);
         algo.setBoundingBoxGenerator(new BoundingBoxGenerator(scale));
         LayoutResult initialLayout = algo.layout(wordGraph);
 
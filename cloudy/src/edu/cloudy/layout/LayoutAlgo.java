@@ -1,6 +1,7 @@
 package edu.cloudy.layout;
 
 import edu.cloudy.geom.BoundingBoxGenerator;
+import edu.cloudy.layout.mds.ScalingAlgo;
 
 /**
  * Algorithm for embedding words (rectangles) in the plane
@@ -11,5 +12,10 @@ public interface LayoutAlgo
 
     public void setAspectRatio(double aspectRatio);
 
+    /**
+     * The algorithm for the mds step of layouts starting from MDSAlgo; null selects the default
+     */
+    public void setScalingAlgo(ScalingAlgo scalingAlgo);
+
     public LayoutResult layout(WordGraph wordGraph);
 }
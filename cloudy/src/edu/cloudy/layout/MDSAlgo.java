@@ -2,29 +2,38 @@ package edu.cloudy.layout;
 
 import edu.cloudy.geom.SWCRectangle;
 import edu.cloudy.layout.mds.DistanceScaling;
+import edu.cloudy.layout.mds.LandmarkScaling;
+import edu.cloudy.layout.mds.ScalingAlgo;
 import edu.cloudy.layout.overlaps.ForceDirectedOverlapRemoval;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Random;
 
 /**
  * @author spupyrev
  * May 12, 2013
  * 
- * 1. compute mds on dissimilarity matrix
+ * 1. compute mds on dissimilarity matrix (unless another algorithm is given, by distance scaling,
+ *    or for large sets of words, by landmark scaling, which is linear in the number of words)
  * 2. remove overlaps
  * 
  * (the algorithm is not supposed to compact the drawing!)
  */
 public class MDSAlgo extends BaseLayoutAlgo
 {
+    private static final int LANDMARK_THRESHOLD = 1000;
+
     private boolean useOverlapRemoval = true;
 
-    public MDSAlgo(boolean useOverlapRemoval)
+    public MDSAlgo(boolean useOverlapRemoval, ScalingAlgo scalingAlgo)
     {
         this.useOverlapRemoval = useOverlapRemoval;
+        this.scalingAlgo = scalingAlgo;
+    }
+
+    public MDSAlgo(boolean useOverlapRemoval)
+    {
+        this(useOverlapRemoval, null);
     }
 
     public MDSAlgo()
@@ -92,18 +101,15 @@ public class MDSAlgo extends BaseLayoutAlgo
     {
         double scaling = computeScaling();
 
-        double[][] desiredDistance = new double[words.length][words.length];
-        for (int i = 0; i < words.length; i++)
-            for (int j = 0; j < words.length; j++)
-            {
-                double dist = wordGraph.distance(words[i], words[j]);
-                desiredDistance[i][j] = dist * scaling;
-            }
+        //the i-th word has index i in the graph
+        ScalingAlgo algo = scalingAlgo;
+        if (algo == null)
+            algo = (words.length > LANDMARK_THRESHOLD ? new LandmarkScaling() : new DistanceScaling());
 
-        //aply MDS
-        double[][] outputMDS = new DistanceScaling().mds(desiredDistance, 2);
+        //aply MDS (the distances are computed by the algorithm as needed)
+        double[][] outputMDS = algo.mds((i, j) -> wordGraph.distance(i, j) * scaling, words.length, 2);
 
-        for (int i = 0; i < desiredDistance[0].length; i++)
+        for (int i = 0; i < words.length; i++)
         {
             assert (!Double.isNaN(outputMDS[0][i]));
             assert (!Double.isNaN(outputMDS[1][i]));
@@ -116,15 +122,15 @@ public class MDSAlgo extends BaseLayoutAlgo
     {
         double areaSum = Arrays.stream(wordPositions).mapToDouble(r -> r.getArea()).sum();
 
-        List<Double> distances = new ArrayList();
-        for (int i = 0; i < words.length; i++)
-            for (int j = 0; j < words.length; j++)
-            {
-                double dist = wordGraph.distance(words[i], words[j]);
-                distances.add(dist);
-            }
+        //the average over all pairs: only the pairs with non-zero similarity differ from the maximum distance
+        int n = words.length;
+        double maxDistance = LayoutUtils.idealDistanceConverter(0);
+        double sumDist = (double)n * (n - 1) * maxDistance;
+        for (int i = 0; i < n; i++)
+            for (int j : wordGraph.adjacency(i))
+                sumDist += wordGraph.distance(i, j) - maxDistance;
 
-        double avgDist = distances.stream().mapToDouble(w -> w).average().orElse(1.0);
+        double avgDist = (n > 0 ? sumDist / n / n : 1.0);
 
         return Math.sqrt(areaSum) / avgDist;
     }
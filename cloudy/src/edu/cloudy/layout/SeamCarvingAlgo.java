@@ -54,7 +54,7 @@ public class SeamCarvingAlgo extends BaseLayoutAlgo
     private SWCRectangle[] initialPlacement()
     {
         //initial layout
-        LayoutResult initialLayout = new MDSAlgo(false).layout(wordGraph);
+        LayoutResult initialLayout = new MDSAlgo(false, scalingAlgo).layout(wordGraph);
         
         SWCRectangle[] wordPositions = new SWCRectangle[words.length];
         int i = 0;
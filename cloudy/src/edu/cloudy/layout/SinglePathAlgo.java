@@ -182,7 +182,7 @@ public class SinglePathAlgo extends BaseLayoutAlgo
 
         for (int i = 0; i < n; i++)
         {
-            double weight = similarity[i][(i + 1) % n];
+            double weight = similarity.get(i, (i + 1) % n);
             if (bestIndex == -1 || weight < minWeight)
             {
                 minWeight = weight;
@@ -194,7 +194,7 @@ public class SinglePathAlgo extends BaseLayoutAlgo
 
         wordGraph.reorderWords(bestIndex);
         words = wordGraph.convertWordsToArray();
-        similarity = wordGraph.convertSimilarityToArray();
+        similarity = wordGraph.getSimilarityMatrix();
     }
 
 }
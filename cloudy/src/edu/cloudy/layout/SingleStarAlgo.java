@@ -560,7 +560,8 @@ public class SingleStarAlgo extends BaseLayoutAlgo
             @Override
             public SWCRectangle getWordPosition(Word w)
             {
-                if (boxesNotRealized.contains(w))
+                //words outside the star (taken by other stars) are not placed either
+                if (boxesNotRealized.contains(w) || !graph.vertexSet().contains(w))
                     return null;
 
                 return super.getWordPosition(w);
@@ -95,9 +95,10 @@ public class StarForestAlgo extends BaseLayoutAlgo
 
     private Graph createStar(Vertex center, Set<Vertex> usedVertices, Graph g)
     {
+        //only the neighbors of the center (the graph is not complete for sparse word graphs)
         List<Word> words = new ArrayList<Word>();
         for (Vertex v : g.vertexSet())
-            if (!usedVertices.contains(v))
+            if (!usedVertices.contains(v) && (center.equals(v) || g.containsEdge(center, v)))
                 words.add(v);
 
         Map<ItemPair<Word>, Double> weights = new HashMap<ItemPair<Word>, Double>();
@@ -1,12 +1,15 @@
 package edu.cloudy.layout;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 import edu.cloudy.nlp.ItemPair;
 import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.similarity.DenseSimilarityMatrix;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 /**
  * @author spupyrev
@@ -15,24 +18,35 @@ import edu.cloudy.nlp.Word;
  * The object wraps words and similarities between them:
  *   - similarities are between [0..1]
  *   - word weights are between [1..5]
+ *   - the i-th word corresponds to the i-th row of the similarity matrix
+ *   - if the matrix is sparse, only non-zero similarities are stored and
+ *     distances are computed on demand, so no quadratic memory is used
+ *   - every word has a dense index (its position in the list of words); the index-based
+ *     methods are meant for loops over pairs of words, the word-based ones are wrappers
  */
 public class WordGraph
 {
     private List<Word> words;
-    private Map<ItemPair<Word>, Double> similarity;
-    private Map<ItemPair<Word>, Double> distance;
+    private SimilarityMatrix similarity;
+    //distances are kept in the same packed layout as similarities (only for dense matrices)
+    private DenseSimilarityMatrix distance;
 
     private WordGraphCache cache;
 
-    public WordGraph(List<Word> words, Map<ItemPair<Word>, Double> similarity)
+    public WordGraph(List<Word> words, SimilarityMatrix similarity)
     {
         this.words = words;
-        this.similarity = similarity;
+        this.similarity = (similarity.getWords().equals(words) ? similarity : similarity.project(words));
 
         checkConsistency();
 
         initializeDistances();
-        cache = new WordGraphCache(words, similarity, distance);
+        cache = new WordGraphCache(this);
+    }
+
+    public WordGraph(List<Word> words, Map<ItemPair<Word>, Double> similarity)
+    {
+        this(words, DenseSimilarityMatrix.fromMap(words, similarity));
     }
 
     public List<Word> getWords()
@@ -40,29 +54,76 @@ public class WordGraph
         return words;
     }
 
+    /**
+     * Similarities as a map (changes are written to the matrix)
+     */
     public Map<ItemPair<Word>, Double> getSimilarity()
+    {
+        return similarity.asMap();
+    }
+
+    public SimilarityMatrix getSimilarityMatrix()
     {
         return similarity;
     }
 
+    public boolean isSparse()
+    {
+        return similarity.isSparse();
+    }
+
+    /**
+     * The index of the word, or -1 if the word is not in the graph
+     */
+    public int indexOf(Word w)
+    {
+        return similarity.indexOf(w);
+    }
+
     public double distance(Word w1, Word w2)
     {
-        return distance.get(new ItemPair<Word>(w1, w2));
+        return distance(indexOf(w1), indexOf(w2));
+    }
+
+    public double distance(int i, int j)
+    {
+        if (distance == null)
+            return LayoutUtils.idealDistanceConverter(similarity.get(i, j));
+
+        return distance.get(i, j);
     }
 
     public double weightedDegree(Word w)
     {
-        return cache.weightedDegree(w);
+        return weightedDegree(indexOf(w));
+    }
+
+    public double weightedDegree(int i)
+    {
+        return cache.weightedDegree(i);
     }
 
     public double shortestPath(Word w1, Word w2)
     {
-        return cache.shortestPath(w1, w2);
+        return shortestPath(indexOf(w1), indexOf(w2));
+    }
+
+    public double shortestPath(int i, int j)
+    {
+        return cache.shortestPath(i, j);
     }
 
     public Integer[] nonZeroAdjacency(Word w)
     {
-        return cache.nonZeroAdjacency(w);
+        return Arrays.stream(adjacency(indexOf(w))).boxed().toArray(Integer[]::new);
+    }
+
+    /**
+     * Indices of the words with non-zero similarity to the i-th word (the array must not be modified)
+     */
+    public int[] adjacency(int i)
+    {
+        return cache.adjacency(i);
     }
 
     public Word[] convertWordsToArray()
@@ -70,29 +131,34 @@ public class WordGraph
         return words.toArray(new Word[words.size()]);
     }
 
+    /**
+     * The full matrix of similarities (uses quadratic memory even for sparse graphs)
+     */
     public double[][] convertSimilarityToArray()
     {
-        double[][] result = new double[words.size()][words.size()];
-        for (int i = 0; i < words.size(); i++)
-            for (int j = 0; j < words.size(); j++)
-            {
-                ItemPair<Word> wp = new ItemPair<Word>(words.get(i), words.get(j));
-                result[i][j] = similarity.get(wp);
-            }
+        int n = words.size();
+        double[][] result = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = i; j < n; j++)
+                result[i][j] = result[j][i] = similarity.get(i, j);
 
         return result;
     }
 
     private void initializeDistances()
     {
-        distance = new HashMap<ItemPair<Word>, Double>();
-        for (int i = 0; i < words.size(); i++)
-            for (int j = 0; j < words.size(); j++)
+        distance = null;
+        if (similarity.isSparse())
+            return;
+
+        int n = words.size();
+        distance = new DenseSimilarityMatrix(words);
+        for (int i = 0; i < n; i++)
+            for (int j = i; j < n; j++)
             {
-                ItemPair<Word> wp = new ItemPair<Word>(words.get(i), words.get(j));
-                double sim = similarity.get(wp);
+                double sim = similarity.get(i, j);
                 double dist = LayoutUtils.idealDistanceConverter(sim);
-                distance.put(wp, dist);
+                distance.set(i, j, dist);
             }
     }
 
@@ -105,6 +171,23 @@ public class WordGraph
 
         for (int i = 0; i < n; i++)
             words.set(i, path.get(i));
+
+        wordsReordered();
+    }
+
+    void sortWords(Comparator<? super Word> comparator)
+    {
+        words.sort(comparator);
+
+        wordsReordered();
+    }
+
+    private void wordsReordered()
+    {
+        //keep the rows of the matrices in the order of words
+        similarity = similarity.project(words);
+        initializeDistances();
+        cache = new WordGraphCache(this);
     }
 
     private void checkConsistency()
@@ -112,17 +195,14 @@ public class WordGraph
         for (int i = 0; i < words.size(); i++)
         {
             Word wi = words.get(i);
-            ItemPair<Word> wp = new ItemPair<Word>(wi, wi);
 
-            assert (similarity.containsKey(wp) && similarity.get(wp) == 1.0);
+            assert (similarity.get(i, i) == 1.0);
             assert (1.0 <= wi.weight && wi.weight <= 5.0);
 
-            for (int j = 0; j < words.size(); j++)
+            //zero similarities are skipped
+            for (int j : similarity.neighbors(i))
             {
-                Word wj = words.get(j);
-                ItemPair<Word> wp2 = new ItemPair<Word>(wi, wj);
-                assert (similarity.containsKey(wp2));
-                double sim = similarity.get(wp2);
+                double sim = similarity.get(i, j);
 
                 assert (0 <= sim && sim <= 1.0);
             }
@@ -1,138 +1,250 @@
 package edu.cloudy.layout;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.stream.IntStream;
 
-import edu.cloudy.nlp.ItemPair;
-import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 /**
  * @author spupyrev
  * Nov 11, 2014
  * 
- * Caches some statistics in the graph of words
+ * Caches some statistics in the graph of words; words are identified by
+ * their index in the graph
+ * 
+ * Shortest paths are computed for all pairs at once: the graph is complete, but the pairs
+ * with zero similarity have the longest possible edge, so Dijkstra's algorithm only follows
+ * the edges of non-zero similarity and the results are capped by that length.
+ * For sparse graphs, the n x n matrix is not stored: shortestPath computes the distances
+ * from a single source and keeps only the last such row
  */
 public class WordGraphCache
 {
-    private List<Word> words;
-    private Map<ItemPair<Word>, Double> similarity;
-    private Map<ItemPair<Word>, Double> distance;
+    //the length of the edges between words with zero similarity
+    private static final double MAX_EDGE_LENGTH = LayoutUtils.idealDistanceConverter(0);
+
+    //sources are processed in parallel for larger graphs
+    private static final int PARALLEL_THRESHOLD = 200;
+
+    //position in the heap of a word which is already processed
+    private static final int DONE = -2;
+
+    private WordGraph wordGraph;
+    private SimilarityMatrix similarity;
+    private int n;
+
+    //the distance from i to j is stored at i * n + j
+    private double[] shortestPaths;
+    //distances from a single source of a sparse graph
+    private double[] shortestPathRow;
+    private int shortestPathSource = -1;
+    //lengths of the edges in the order of the adjacency lists
+    private double[][] edgeLengths;
+    //rows are computed on demand
+    private double[] weightedDegree;
+    private int[][] adjacency;
+
+    public WordGraphCache(WordGraph wordGraph)
+    {
+        this.wordGraph = wordGraph;
+        this.similarity = wordGraph.getSimilarityMatrix();
 
-    private Map<ItemPair<Word>, Double> shortestPaths = new HashMap<ItemPair<Word>, Double>();
-    private Map<Word, Double> weightedDegree = new HashMap<Word, Double>();
-    private Map<Word, Integer[]> nonZeroAdjacency = new HashMap<Word, Integer[]>();
+        n = similarity.size();
+        weightedDegree = new double[n];
+        Arrays.fill(weightedDegree, Double.NaN);
+        adjacency = new int[n][];
+    }
 
-    public WordGraphCache(List<Word> words, Map<ItemPair<Word>, Double> similarity, Map<ItemPair<Word>, Double> distance)
+    public double shortestPath(int s, int t)
     {
-        this.words = words;
-        this.similarity = similarity;
-        this.distance = distance;
+        if (!similarity.isSparse())
+            return shortestPaths()[s * n + t];
+
+        if (shortestPathSource != s)
+        {
+            if (shortestPathRow == null)
+                shortestPathRow = new double[n];
+            dijkstra(s, edgeLengths(), shortestPathRow, 0);
+            shortestPathSource = s;
+        }
+
+        return shortestPathRow[t];
     }
 
-    public double shortestPath(Word w1, Word w2)
+    /**
+     * Lengths of shortest paths between all pairs of words as a flat row-major matrix
+     * (the array must not be modified)
+     */
+    public double[] shortestPaths()
     {
-    	ItemPair<Word> wp = new ItemPair<Word>(w1, w2);
-        if (!shortestPaths.containsKey(wp))
-            initShortestPaths(w1);
+        if (shortestPaths == null)
+            shortestPaths = computeShortestPaths(n >= PARALLEL_THRESHOLD);
 
-        return shortestPaths.get(wp);
+        return shortestPaths;
     }
 
-    public double weightedDegree(Word w)
+    /**
+     * Runs Dijkstra's algorithm from every word; the result is not cached
+     */
+    public double[] computeShortestPaths(boolean parallel)
     {
-        if (!weightedDegree.containsKey(w))
-            initWeightedDegree(w);
+        //the rows (and lengths of their edges) are shared by the threads
+        double[][] lengths = edgeLengths();
 
-        return weightedDegree.get(w);
+        double[] result = new double[n * n];
+        IntStream sources = IntStream.range(0, n);
+        if (parallel)
+            sources = sources.parallel();
+        sources.forEach(s -> dijkstra(s, lengths, result, s * n));
+
+        return result;
     }
 
-    public Integer[] nonZeroAdjacency(Word w)
+    public double weightedDegree(int s)
     {
-        if (!nonZeroAdjacency.containsKey(w))
-            initNonZeroAdjacency(w);
+        if (Double.isNaN(weightedDegree[s]))
+            initWeightedDegree(s);
 
-        return nonZeroAdjacency.get(w);
+        return weightedDegree[s];
     }
 
-    private void initShortestPaths(Word s)
+    /**
+     * Indices of words with non-zero similarity (the array must not be modified)
+     */
+    public int[] adjacency(int s)
     {
-        Map<Word, Integer> wIndex = new HashMap<Word, Integer>();
-        for (int i = 0; i < words.size(); i++)
-            wIndex.put(words.get(i), i);
+        if (adjacency[s] == null)
+            adjacency[s] = similarity.neighbors(s);
 
-        double INF = 123456789.0;
+        return adjacency[s];
+    }
 
-        double[] dist = new double[words.size()];
-        Arrays.fill(dist, INF);
-        dist[wIndex.get(s)] = 0;
+    private double[][] edgeLengths()
+    {
+        if (edgeLengths == null)
+        {
+            double[][] lengths = new double[n][];
+            for (int v = 0; v < n; v++)
+            {
+                int[] adj = adjacency(v);
+                lengths[v] = new double[adj.length];
+                for (int i = 0; i < adj.length; i++)
+                    lengths[v][i] = wordGraph.distance(v, adj[i]);
+            }
 
-        PriorityQueue<Word> q = new PriorityQueue<Word>();
-        q.add(s);
+            edgeLengths = lengths;
+        }
+
+        return edgeLengths;
+    }
 
-        while (!q.isEmpty())
+    /**
+     * Dijkstra's algorithm with a binary heap (with decrease-key) over the edges of non-zero similarity;
+     * the distances from s are written to the result starting at the offset
+     */
+    private void dijkstra(int s, double[][] lengths, double[] result, int offset)
+    {
+        Arrays.fill(result, offset, offset + n, Double.POSITIVE_INFINITY);
+
+        int[] heap = new int[n];
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+
+        result[offset + s] = 0;
+        heap[0] = s;
+        position[s] = 0;
+        int size = 1;
+        while (size > 0)
         {
-            Word now = q.poll();
+            int v = heap[0];
+            position[v] = DONE;
+            if (--size > 0)
+            {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(heap, position, size, result, offset);
+            }
 
-            int v = wIndex.get(now);
-            for (int i = 0; i < words.size(); i++)
+            double dv = result[offset + v];
+            //the remaining words are reached by a direct edge
+            if (dv >= MAX_EDGE_LENGTH)
+                break;
+
+            int[] adj = adjacency[v];
+            double[] len = lengths[v];
+            for (int i = 0; i < adj.length; i++)
             {
-                Word next = words.get(i);
-                ItemPair<Word> wp = new ItemPair<Word>(now, next);
-                if (distance.containsKey(wp))
+                int u = adj[i];
+                if (position[u] == DONE)
+                    continue;
+
+                double du = dv + len[i];
+                if (du < result[offset + u])
                 {
-                    double len = distance.get(wp);
-                    if (dist[i] > dist[v] + len)
+                    result[offset + u] = du;
+                    if (position[u] == -1)
                     {
-                        dist[i] = dist[v] + len;
-                        q.add(next);
+                        heap[size] = u;
+                        position[u] = size++;
                     }
-
+                    siftUp(heap, position, position[u], result, offset);
                 }
             }
         }
 
-        for (int i = 0; i < words.size(); i++)
-        {
-        	ItemPair<Word> wp = new ItemPair<Word>(s, words.get(i));
-            shortestPaths.put(wp, dist[i]);
-        }
+        for (int t = 0; t < n; t++)
+            if (t != s && result[offset + t] > MAX_EDGE_LENGTH)
+                result[offset + t] = MAX_EDGE_LENGTH;
     }
 
-    private void initWeightedDegree(Word s)
+    private static void siftUp(int[] heap, int[] position, int k, double[] dist, int offset)
     {
-        double wd = 0;
-        for (int j = 0; j < words.size(); j++)
+        int v = heap[k];
+        while (k > 0)
         {
-            Word t = words.get(j);
-            if (s.equals(t))
-                continue;
+            int parent = (k - 1) >> 1;
+            if (dist[offset + heap[parent]] <= dist[offset + v])
+                break;
 
-            ItemPair<Word> wp = new ItemPair<Word>(s, t);
-            wd += similarity.get(wp);
+            heap[k] = heap[parent];
+            position[heap[k]] = k;
+            k = parent;
         }
 
-        weightedDegree.put(s, wd);
+        heap[k] = v;
+        position[v] = k;
     }
 
-    private void initNonZeroAdjacency(Word s)
+    private static void siftDown(int[] heap, int[] position, int size, double[] dist, int offset)
     {
-        List<Integer> adj = new ArrayList<>();
-        for (int i = 0; i < words.size(); i++)
+        int k = 0;
+        int v = heap[0];
+        while (true)
         {
-            Word t = words.get(i);
-            if (s.equals(t))
-                continue;
-
-            ItemPair<Word> wp = new ItemPair<Word>(s, t);
-            if (similarity.get(wp) > 0)
-                adj.add(i);
+            int child = 2 * k + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && dist[offset + heap[child + 1]] < dist[offset + heap[child]])
+                child++;
+            if (dist[offset + v] <= dist[offset + heap[child]])
+                break;
+
+            heap[k] = heap[child];
+            position[heap[k]] = k;
+            k = child;
         }
 
-        nonZeroAdjacency.put(s, adj.toArray(new Integer[adj.size()]));
+        heap[k] = v;
+        position[v] = k;
+    }
+
+    private void initWeightedDegree(int s)
+    {
+        double wd = 0;
+        for (int j : adjacency(s))
+            wd += similarity.get(s, j);
+
+        weightedDegree[s] = wd;
     }
 
 }
@@ -1,16 +1,33 @@
 package edu.cloudy.layout.mds;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 /**
  * @author spupyrev
  * Nov 12, 2014
  * 
- * Computes multidimensional scaling by fitting inner products
+ * Computes multidimensional scaling by fitting inner products:
+ *   - the double-centered matrix B of squared distances is symmetric, so only its upper triangle
+ *     is stored, packed row by row into a single array
+ *   - the top eigenpairs of B are found simultaneously by subspace iteration with Rayleigh-Ritz
+ *     projection; a couple of extra vectors are iterated, so that the wanted vectors converge faster.
+ *     The iteration finds the eigenvalues of the largest magnitude, so if negative eigenvalues hide
+ *     the positive ones, the block is doubled until enough positive eigenvalues are found
+ *   - products of B and a block of vectors are computed in parallel blocks of rows for larger inputs
  */
-public class ClassicalScaling
+public class ClassicalScaling implements ScalingAlgo
 {
     private static final int MAX_ITERATIONS = 50;
     private static final double EPS = 1e-6;
 
+    //vectors iterated in addition to the requested dimensions
+    private static final int EXTRA_VECTORS = 2;
+
+    private static final int PARALLEL_THRESHOLD = 500;
+
+    @Override
     public double[][] mds(double[][] d, int dimensions)
     {
         assert (d.length == d[0].length);
@@ -24,60 +41,307 @@ public class ClassicalScaling
                 assert (d[i][j] >= 0);
             }
 
-        double[][] B = MathUtils.copy(d);
-        MathUtils.squareEntries(B);
-        MathUtils.doubleCenter(B);
-        MathUtils.scale(B, -0.5);
+        return mds((i, j) -> d[i][j], n, dimensions);
+    }
+
+    /**
+     * Only the distances d(i, j) with i <= j are requested
+     */
+    @Override
+    public double[][] mds(Distances d, int n, int dimensions)
+    {
+        if (n == 0)
+            return new double[dimensions][0];
+
+        SymmetricMatrix B = new SymmetricMatrix(n, n >= PARALLEL_THRESHOLD);
+        B.doubleCenterSquares(d);
+
+        int p = Math.min(n, dimensions + EXTRA_VECTORS);
+        double[] x = new double[p * n];
+        for (int c = 0; c < p; c++)
+            System.arraycopy(MathUtils.randomUnitLengthVector(n, c), 0, x, c * n, n);
+        orthonormalize(x, n, p);
+
+        double[] lambda = subspaceIteration(B, x, n, p, dimensions);
+        while (p < n && missingPositiveEigenvalues(lambda, dimensions))
+        {
+            //the converged vectors are kept, and random vectors are added
+            int q = Math.min(n, 2 * p);
+            double[] extended = Arrays.copyOf(x, q * n);
+            for (int c = p; c < q; c++)
+                System.arraycopy(MathUtils.randomUnitLengthVector(n, c), 0, extended, c * n, n);
+            orthonormalize(extended, n, q);
+
+            p = q;
+            x = extended;
+            lambda = subspaceIteration(B, x, n, p, dimensions);
+        }
 
-        double[][] res = new double[dimensions][B.length];
+        //the largest positive eigenvalues give the coordinates
+        double[][] res = new double[dimensions][n];
         int uIndex = 0;
-        for (int k = 0; k <= dimensions; k++)
+        for (int c = 0; c < p && uIndex < dimensions; c++)
         {
-            double[] u = MathUtils.randomUnitLengthVector(n, k);
-            double lambda = powerIteration(B, u);
-            //System.out.println("\u019B_" + (k + 1) + " = " + lambda);
+            if (lambda[c] < 0)
+                continue;
+
+            double s = Math.sqrt(lambda[c]);
+            for (int j = 0; j < n; j++)
+                res[uIndex][j] = x[c * n + j] * s;
+            uIndex++;
+        }
+
+        return res;
+    }
+
+    /**
+     * Fewer positive eigenvalues than dimensions are found, although the block ends with
+     * eigenvalues which are not negligible, so there may be positive eigenvalues outside the block
+     */
+    private static boolean missingPositiveEigenvalues(double[] lambda, int dimensions)
+    {
+        int positive = 0;
+        for (double l : lambda)
+            if (l > 0)
+                positive++;
+
+        double last = Math.abs(lambda[lambda.length - 1]);
+        return positive < dimensions && last > EPS * Math.abs(lambda[0]);
+    }
 
-            if (k < dimensions)
+    /**
+     * Iterates the orthonormal columns of x (the c-th column is at c * n) towards the eigenvectors
+     * of B ordered by the absolute value of eigenvalues; returns the eigenvalues. Only the vectors
+     * up to the requested number of non-negative eigenvalues are required to converge
+     */
+    private double[] subspaceIteration(SymmetricMatrix B, double[] x, int n, int p, int dimensions)
+    {
+        double[] y = new double[p * n];
+        double[] z = new double[p * n];
+        double[][] h = new double[p][p];
+        double[][] w = new double[p][p];
+        double[] lambda = new double[p];
+
+        for (int it = 0; it < MAX_ITERATIONS; it++)
+        {
+            B.multiply(x, y, p);
+
+            //Rayleigh-Ritz: the eigenpairs of the projection x^T B x
+            for (int c = 0; c < p; c++)
+                for (int e = 0; e < p; e++)
+                    h[c][e] = dot(x, c, y, e, n);
+            double[] ritz = MathUtils.symmetricEigen(h, w);
+            Integer[] order = new Integer[p];
+            for (int c = 0; c < p; c++)
+                order[c] = c;
+            Arrays.sort(order, (a, b) -> Double.compare(Math.abs(ritz[b]), Math.abs(ritz[a])));
+
+            //z = y w, with the columns in the order of eigenvalues
+            Arrays.fill(z, 0);
+            for (int c = 0; c < p; c++)
             {
-                if (lambda >= 0.0)
+                lambda[c] = ritz[order[c]];
+                for (int e = 0; e < p; e++)
                 {
-                    double s = Math.sqrt(lambda);
-                    for (int j = 0; j < B.length; j++)
-                        res[uIndex][j] = u[j] * s;
-                    uIndex++;
+                    double coefficient = w[e][order[c]];
+                    int from = e * n;
+                    int to = c * n;
+                    for (int j = 0; j < n; j++)
+                        z[to + j] += coefficient * y[from + j];
                 }
-                else
+            }
+            orthonormalize(z, n, p);
+
+            int required = p;
+            for (int c = 0, count = 0; c < p; c++)
+                if (lambda[c] >= 0 && ++count == dimensions)
                 {
-                    dimensions++;
+                    required = c + 1;
+                    break;
                 }
 
+            //the directions of the vectors are stable (zero vectors belong to zero eigenvalues)
+            boolean converged = true;
+            for (int c = 0; c < required; c++)
+            {
+                double r = Math.abs(dot(x, c, z, c, n));
+                if (r < 1.0 - EPS && dot(z, c, z, c, n) > 0)
+                    converged = false;
             }
-            for (int i = 0; i < n; i++)
+
+            System.arraycopy(z, 0, x, 0, x.length);
+            if (converged)
+                break;
+        }
+
+        return lambda;
+    }
+
+    /**
+     * Modified Gram-Schmidt on the columns; columns dependent on the previous ones become zero
+     */
+    private static void orthonormalize(double[] x, int n, int p)
+    {
+        for (int c = 0; c < p; c++)
+        {
+            double before = Math.sqrt(dot(x, c, x, c, n));
+            for (int e = 0; e < c; e++)
+            {
+                double s = dot(x, e, x, c, n);
                 for (int j = 0; j < n; j++)
-                {
-                    B[i][j] -= lambda * u[i] * u[j];
-                }
+                    x[c * n + j] -= s * x[e * n + j];
+            }
+
+            double len = Math.sqrt(dot(x, c, x, c, n));
+            double s = (len > EPS * before ? 1.0 / len : 0);
+            for (int j = 0; j < n; j++)
+                x[c * n + j] *= s;
         }
+    }
+
+    private static double dot(double[] x, int c, double[] y, int e, int n)
+    {
+        double res = 0;
+        for (int j = 0; j < n; j++)
+            res += x[c * n + j] * y[e * n + j];
 
         return res;
     }
 
-    private double powerIteration(double[][] B, double[] u)
+    /**
+     * Symmetric matrix storing the upper triangle (with the diagonal) packed row by row
+     */
+    private static class SymmetricMatrix
     {
-        double lambda = 0;
+        private int n;
+        private double[] values;
+
+        //rows [rowBlocks[b], rowBlocks[b + 1]) hold about the same number of cells
+        private int[] rowBlocks;
+        //the products of blocks are accumulated separately and summed
+        private double[][] partial;
 
-        double r = 0;
-        double limit = 1.0 - EPS;
-        //iterate until convergence but at most 'maxIterations' steps
-        for (int i = 0; (i < MAX_ITERATIONS) && (r < limit); i++)
+        SymmetricMatrix(int n, boolean parallel)
         {
-            double[] x = MathUtils.multiply(B, u);
-            lambda = MathUtils.normalize(x);
-            r = Math.abs(MathUtils.dot(u, x));
-            System.arraycopy(x, 0, u, 0, x.length);
+            this.n = n;
+            values = new double[(int)((long)n * (n + 1) / 2)];
+
+            int blockCount = (parallel ? Math.max(1, Math.min(n, 4 * ForkJoinPool.commonPool().getParallelism())) : 1);
+            rowBlocks = new int[blockCount + 1];
+            long cells = 0;
+            int b = 1;
+            for (int i = 0; i < n && b < blockCount; i++)
+            {
+                cells += n - i;
+                if (cells * blockCount >= (long)b * values.length)
+                    rowBlocks[b++] = i + 1;
+            }
+            while (b <= blockCount)
+                rowBlocks[b++] = n;
+
+            partial = new double[blockCount][];
         }
 
-        return lambda;
+        int rowStart(int i)
+        {
+            //rows 0..i-1 occupy n + (n-1) + ... + (n-i+1) cells
+            return (int)((long)i * (2 * n - i + 1) / 2);
+        }
+
+        /**
+         * B = -1/2 J D^2 J, where J is the centering matrix
+         */
+        void doubleCenterSquares(Distances d)
+        {
+            rows().forEach(b -> {
+                for (int i = rowBlocks[b]; i < rowBlocks[b + 1]; i++)
+                {
+                    int start = rowStart(i) - i;
+                    for (int j = i; j < n; j++)
+                    {
+                        double dist = d.get(i, j);
+                        values[start + j] = dist * dist;
+                    }
+                }
+            });
+
+            //row means equal column means
+            double[] mean = new double[n];
+            for (int i = 0; i < n; i++)
+            {
+                int start = rowStart(i) - i;
+                mean[i] += values[start + i];
+                for (int j = i + 1; j < n; j++)
+                {
+                    mean[i] += values[start + j];
+                    mean[j] += values[start + j];
+                }
+            }
+            double total = 0;
+            for (int i = 0; i < n; i++)
+            {
+                total += mean[i];
+                mean[i] /= n;
+            }
+            double totalMean = total / n / n;
+
+            rows().forEach(b -> {
+                for (int i = rowBlocks[b]; i < rowBlocks[b + 1]; i++)
+                {
+                    int start = rowStart(i) - i;
+                    double shift = totalMean - mean[i];
+                    for (int j = i; j < n; j++)
+                        values[start + j] = -0.5 * (values[start + j] - mean[j] + shift);
+                }
+            });
+        }
+
+        /**
+         * y = B x for the p columns of x (the c-th column is at c * n)
+         */
+        void multiply(double[] x, double[] y, int p)
+        {
+            rows().forEach(b -> {
+                if (partial[b] == null || partial[b].length != p * n)
+                    partial[b] = new double[p * n];
+                double[] acc = partial[b];
+                Arrays.fill(acc, 0);
+
+                for (int i = rowBlocks[b]; i < rowBlocks[b + 1]; i++)
+                {
+                    int start = rowStart(i) - i;
+                    for (int c = 0; c < p; c++)
+                    {
+                        int col = c * n;
+                        double xi = x[col + i];
+
+                        //the row contributes to y_i, and (as the column) to y_j for j > i
+                        double sum = values[start + i] * xi;
+                        for (int j = i + 1; j < n; j++)
+                        {
+                            double v = values[start + j];
+                            sum += v * x[col + j];
+                            acc[col + j] += v * xi;
+                        }
+                        acc[col + i] += sum;
+                    }
+                }
+            });
+
+            System.arraycopy(partial[0], 0, y, 0, p * n);
+            for (int b = 1; b < partial.length; b++)
+            {
+                double[] acc = partial[b];
+                for (int k = 0; k < p * n; k++)
+                    y[k] += acc[k];
+            }
+        }
+
+        private IntStream rows()
+        {
+            IntStream blocks = IntStream.range(0, rowBlocks.length - 1);
+            return (rowBlocks.length > 2 ? blocks.parallel() : blocks);
+        }
     }
 
 }
@@ -8,12 +8,13 @@ import edu.cloudy.utils.Logger;
  * 
  * Computes the mds by distance scaling
  */
-public class DistanceScaling
+public class DistanceScaling implements ScalingAlgo
 {
     private static final int MAX_ITERATIONS = 1000;
     private static final double EPS = 1e-5;
     private static final double MIN_PROGRESS = 1e-2;
 
+    @Override
     public double[][] mds(double[][] d, int dim)
     {
         return mds(d, dim, true);
@@ -0,0 +1,154 @@
+package edu.cloudy.layout.mds;
+
+import java.util.Arrays;
+
+/**
+ * Computes the mds of large inputs by landmark scaling (de Silva and Tenenbaum):
+ *   - k landmarks are chosen one by one, the next being the farthest from the chosen ones
+ *   - the landmarks are embedded by classical scaling
+ *   - every point is placed by distance-based triangulation from the landmarks
+ * Only the distances from the landmarks are used, so the time and memory are O(nk)
+ */
+public class LandmarkScaling implements ScalingAlgo
+{
+    private static final int DEFAULT_LANDMARKS = 100;
+    private static final double EPS = 1e-9;
+
+    private int landmarkCount;
+
+    public LandmarkScaling()
+    {
+        this(DEFAULT_LANDMARKS);
+    }
+
+    public LandmarkScaling(int landmarkCount)
+    {
+        this.landmarkCount = landmarkCount;
+    }
+
+    @Override
+    public double[][] mds(double[][] d, int dim)
+    {
+        assert (d.length == d[0].length);
+
+        return mds((i, j) -> d[i][j], d.length, dim);
+    }
+
+    @Override
+    public double[][] mds(Distances d, int n, int dim)
+    {
+        int k = Math.min(n, landmarkCount);
+        if (k == 0)
+            return new double[dim][0];
+
+        //squared distances from the landmarks
+        int[] landmarks = new int[k];
+        double[][] rows = new double[k][];
+        chooseLandmarks(d, n, landmarks, rows);
+
+        //classical scaling of the landmarks
+        double[][] landmarkDistances = new double[k][k];
+        for (int a = 0; a < k; a++)
+            for (int b = 0; b < k; b++)
+                landmarkDistances[a][b] = Math.sqrt(rows[a][landmarks[b]]);
+        double[][] landmarkCoordinates = new ClassicalScaling().mds(landmarkDistances, dim);
+
+        double[][] inverse = pseudoInverse(landmarkCoordinates);
+
+        //mean squared distance to each landmark among the landmarks
+        double[] mean = new double[k];
+        for (int a = 0; a < k; a++)
+            for (int b = 0; b < k; b++)
+                mean[b] += rows[a][landmarks[b]] / k;
+
+        //triangulation
+        double[][] res = new double[dim][n];
+        for (int c = 0; c < dim; c++)
+        {
+            for (int a = 0; a < k; a++)
+            {
+                double coefficient = -0.5 * inverse[c][a];
+                double[] row = rows[a];
+                double ma = mean[a];
+                for (int i = 0; i < n; i++)
+                    res[c][i] += coefficient * (row[i] - ma);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * (L L^T)^-1 L for the coordinates L of the landmarks; for exact eigenvectors, this is
+     * the eigenvectors divided by the square roots of eigenvalues, but power iteration
+     * leaves them slightly non-orthogonal. Degenerate dimensions get zero rows
+     */
+    private double[][] pseudoInverse(double[][] coordinates)
+    {
+        int dim = coordinates.length;
+        double[][] gram = new double[dim][dim];
+        double[][] res = MathUtils.copy(coordinates);
+        for (int c = 0; c < dim; c++)
+            for (int e = 0; e < dim; e++)
+                gram[c][e] = MathUtils.dot(coordinates[c], coordinates[e]);
+
+        //Gauss-Jordan elimination applied to the rows of the result
+        for (int c = 0; c < dim; c++)
+        {
+            double pivot = gram[c][c];
+            if (pivot <= EPS)
+            {
+                Arrays.fill(res[c], 0);
+                continue;
+            }
+
+            MathUtils.scale(gram[c], 1.0 / pivot);
+            MathUtils.scale(res[c], 1.0 / pivot);
+            for (int e = 0; e < dim; e++)
+            {
+                double factor = gram[e][c];
+                if (e == c || factor == 0)
+                    continue;
+
+                for (int f = 0; f < dim; f++)
+                    gram[e][f] -= factor * gram[c][f];
+                for (int a = 0; a < res[e].length; a++)
+                    res[e][a] -= factor * res[c][a];
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Max-min selection of landmarks starting from the first point; rows are filled with
+     * squared distances from the chosen landmarks
+     */
+    private void chooseLandmarks(Distances d, int n, int[] landmarks, double[][] rows)
+    {
+        double[] minDistance = new double[n];
+        Arrays.fill(minDistance, Double.POSITIVE_INFINITY);
+
+        int next = 0;
+        for (int a = 0; a < landmarks.length; a++)
+        {
+            landmarks[a] = next;
+            double[] row = new double[n];
+            for (int i = 0; i < n; i++)
+            {
+                double dist = d.get(next, i);
+                row[i] = dist * dist;
+                minDistance[i] = Math.min(minDistance[i], dist);
+            }
+            rows[a] = row;
+            //chosen landmarks are marked by a negative distance
+            minDistance[next] = -1;
+
+            //ties (with repeated points) are broken by the index
+            next = -1;
+            for (int i = 0; i < n; i++)
+                if (minDistance[i] >= 0 && (next == -1 || minDistance[i] > minDistance[next]))
+                    next = i;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package edu.cloudy.layout.mds;
 
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -132,6 +133,74 @@ public class MathUtils
         return y;
     }
 
+    /**
+     * Eigenvalues of a small symmetric matrix by the cyclic Jacobi method; the matrix is destroyed,
+     * and the c-th column of vectors becomes the eigenvector of the c-th eigenvalue
+     */
+    public static double[] symmetricEigen(double[][] a, double[][] vectors)
+    {
+        int n = a.length;
+        double norm = 0;
+        for (int i = 0; i < n; i++)
+        {
+            Arrays.fill(vectors[i], 0);
+            vectors[i][i] = 1;
+            for (int j = 0; j < n; j++)
+                norm += a[i][j] * a[i][j];
+        }
+
+        for (int sweep = 0; sweep < 100; sweep++)
+        {
+            double off = 0;
+            for (int p = 0; p < n; p++)
+                for (int q = p + 1; q < n; q++)
+                    off += a[p][q] * a[p][q];
+            if (off <= 1e-30 * norm)
+                break;
+
+            for (int p = 0; p < n; p++)
+                for (int q = p + 1; q < n; q++)
+                {
+                    if (a[p][q] == 0)
+                        continue;
+
+                    //the rotation zeroing a[p][q]
+                    double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+                    double t = (theta >= 0 ? 1 : -1) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+                    double c = 1 / Math.sqrt(t * t + 1);
+                    double s = t * c;
+
+                    for (int k = 0; k < n; k++)
+                    {
+                        double akp = a[k][p];
+                        double akq = a[k][q];
+                        a[k][p] = c * akp - s * akq;
+                        a[k][q] = s * akp + c * akq;
+                    }
+                    for (int k = 0; k < n; k++)
+                    {
+                        double apk = a[p][k];
+                        double aqk = a[q][k];
+                        a[p][k] = c * apk - s * aqk;
+                        a[q][k] = s * apk + c * aqk;
+                    }
+                    for (int k = 0; k < n; k++)
+                    {
+                        double vkp = vectors[k][p];
+                        double vkq = vectors[k][q];
+                        vectors[k][p] = c * vkp - s * vkq;
+                        vectors[k][q] = s * vkp + c * vkq;
+                    }
+                }
+        }
+
+        double[] res = new double[n];
+        for (int i = 0; i < n; i++)
+            res[i] = a[i][i];
+
+        return res;
+    }
+
     /**
      *  Multiply a square matrix by itself 
      */
@@ -0,0 +1,16 @@
+package edu.cloudy.layout.mds;
+
+/**
+ * Landmark scaling refined by a few iterations of stress majorization; the result is much closer
+ * to distance scaling, but the refinement keeps all the n^2 distances, so unlike landmark scaling
+ * it is quadratic in time and memory
+ */
+public class RefinedLandmarkScaling extends StressMajorization
+{
+    private static final int REFINEMENT_ITERATIONS = 10;
+
+    public RefinedLandmarkScaling()
+    {
+        super(new LandmarkScaling(), REFINEMENT_ITERATIONS);
+    }
+}
@@ -0,0 +1,32 @@
+package edu.cloudy.layout.mds;
+
+/**
+ * Multidimensional scaling: embeds n points so that their Euclidean distances approximate
+ * the given symmetric n x n matrix of distances; the result is indexed by [dimension][point]
+ */
+public interface ScalingAlgo
+{
+    public double[][] mds(double[][] d, int dim);
+
+    /**
+     * Embeds n points with distances given by the function; the full matrix is built unless
+     * the algorithm needs only some of the distances
+     */
+    public default double[][] mds(Distances d, int n, int dim)
+    {
+        double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                matrix[i][j] = d.get(i, j);
+
+        return mds(matrix, dim);
+    }
+
+    /**
+     * The distance between the i-th and the j-th points
+     */
+    public interface Distances
+    {
+        public double get(int i, int j);
+    }
+}
@@ -0,0 +1,36 @@
+package edu.cloudy.layout.mds;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Algorithms for the mds step of the layouts starting from MDSAlgo
+ */
+public class ScalingAlgorithmRegistry
+{
+    private static Map<String, Class<? extends ScalingAlgo>> algorithms = new HashMap<String, Class<? extends ScalingAlgo>>();
+
+    static
+    {
+        algorithms.put("ds", DistanceScaling.class);
+        algorithms.put("smacof", StressMajorization.class);
+        algorithms.put("cs", ClassicalScaling.class);
+        algorithms.put("lmds", LandmarkScaling.class);
+        algorithms.put("rlmds", RefinedLandmarkScaling.class);
+    }
+
+    public static ScalingAlgo getById(String id)
+    {
+        try
+        {
+            Class<? extends ScalingAlgo> cls = algorithms.get(id);
+            Constructor<? extends ScalingAlgo> ctor = cls.getConstructor();
+            return ctor.newInstance();
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package edu.cloudy.layout.mds;
+
+import edu.cloudy.utils.Logger;
+
+import java.util.stream.IntStream;
+
+/**
+ * Computes the mds by stress majorization (SMACOF) with unit weights:
+ *   - the iterations start from the result of another algorithm (classical scaling by default)
+ *   - every iteration is the Guttman transform X = B(X) X / n, which never increases the stress
+ *   - the iterations stop when the stress decreases by less than the given fraction,
+ *     or after the given number of iterations
+ *   - distances and coordinates are kept in flat arrays (the k-th coordinate of the j-th point
+ *     is at k * n + j), so the loops over points are contiguous
+ *   - the rows of B(X) X are independent, so they are computed in parallel for larger inputs
+ */
+public class StressMajorization implements ScalingAlgo
+{
+    private static final int DEFAULT_MAX_ITERATIONS = 1000;
+    private static final double DEFAULT_TOLERANCE = 1e-4;
+    private static final double EPS = 1e-9;
+
+    private static final int PARALLEL_THRESHOLD = 500;
+    private static final int BLOCK_SIZE = 64;
+
+    private ScalingAlgo initialAlgo;
+    private double tolerance;
+    private int maxIterations;
+    private boolean parallel;
+
+    //statistics of the last run
+    private double stress;
+    private int iterations;
+
+    public StressMajorization()
+    {
+        this(DEFAULT_TOLERANCE, true);
+    }
+
+    /**
+     * The rows are computed in parallel only if it is allowed and the input is large enough
+     */
+    public StressMajorization(double tolerance, boolean parallel)
+    {
+        this(new ClassicalScaling(), tolerance, DEFAULT_MAX_ITERATIONS, parallel);
+    }
+
+    /**
+     * Refines the result of the given algorithm by at most maxIterations iterations
+     */
+    public StressMajorization(ScalingAlgo initialAlgo, int maxIterations)
+    {
+        this(initialAlgo, DEFAULT_TOLERANCE, maxIterations, true);
+    }
+
+    public StressMajorization(ScalingAlgo initialAlgo, double tolerance, int maxIterations, boolean parallel)
+    {
+        this.initialAlgo = initialAlgo;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Normalized stress of the last result: the sum of (d_ij - |x_i - x_j|)^2 divided by the sum of d_ij^2
+     */
+    public double getStress()
+    {
+        return stress;
+    }
+
+    public int getIterations()
+    {
+        return iterations;
+    }
+
+    @Override
+    public double[][] mds(double[][] d, int dim)
+    {
+        return mds(d, dim, true);
+    }
+
+    /**
+     * Starts from the initial algorithm or from random coordinates
+     */
+    public double[][] mds(double[][] d, int dim, boolean useInitialAlgo)
+    {
+        assert (d.length == d[0].length);
+
+        int n = d.length;
+        if (useInitialAlgo)
+            return mds((i, j) -> d[i][j], n, dim);
+
+        double[][] init = new double[dim][n];
+        for (int k = 0; k < dim; k++)
+            init[k] = MathUtils.randomUnitLengthVector(n, k);
+        DistanceScaling.scaleToAverageDistance(d, init);
+
+        double[] delta = new double[n * n];
+        for (int i = 0; i < n; i++)
+            System.arraycopy(d[i], 0, delta, i * n, n);
+
+        return refine(delta, n, dim, init);
+    }
+
+    /**
+     * The distances are copied into a flat matrix, and the initial algorithm requests them as needed
+     */
+    @Override
+    public double[][] mds(Distances d, int n, int dim)
+    {
+        double[][] init = initialAlgo.mds(d, n, dim);
+
+        double[] delta = new double[n * n];
+        for (int i = 0; i < n; i++)
+            for (int j = i; j < n; j++)
+                delta[i * n + j] = delta[j * n + i] = d.get(i, j);
+
+        return refine(delta, n, dim, init);
+    }
+
+    private double[][] refine(double[] delta, int n, int dim, double[][] init)
+    {
+        double[] x = new double[dim * n];
+        for (int k = 0; k < dim; k++)
+            System.arraycopy(init[k], 0, x, k * n, n);
+
+        x = mds(delta, n, dim, x);
+
+        double[][] res = new double[dim][n];
+        for (int k = 0; k < dim; k++)
+            System.arraycopy(x, k * n, res[k], 0, n);
+
+        return res;
+    }
+
+    /**
+     * Runs the iterations on the flat matrix of distances, starting from the given coordinates
+     * (the k-th coordinate of the j-th point is at k * n + j); returns the final coordinates,
+     * which may be stored in the given array
+     */
+    public double[] mds(double[] delta, int n, int dim, double[] x)
+    {
+        double normalization = 0;
+        for (int i = 0; i < n * n; i++)
+            normalization += delta[i] * delta[i];
+        normalization /= 2;
+        if (normalization <= 0)
+            normalization = 1;
+
+        int blockCount = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        double[][] ratio = new double[blockCount][n];
+        double[] rowStress = new double[n];
+        double[] next = new double[dim * n];
+
+        double previous = 0;
+        iterations = 0;
+        while (true)
+        {
+            //one pass computes the stress of x and the transform of x
+            double[] cur = x;
+            double[] res = next;
+            IntStream blocks = IntStream.range(0, blockCount);
+            if (parallel && n >= PARALLEL_THRESHOLD)
+                blocks = blocks.parallel();
+            blocks.forEach(b -> guttmanTransform(delta, n, dim, cur, res, rowStress, ratio[b], b * BLOCK_SIZE, Math.min(n, (b + 1) * BLOCK_SIZE)));
+
+            double current = 0;
+            for (int i = 0; i < n; i++)
+                current += rowStress[i];
+            current /= 2 * normalization;
+
+            boolean converged = (iterations > 0 && previous - current <= tolerance * previous);
+            if (converged || iterations == maxIterations)
+            {
+                Logger.println("mds converged after " + iterations + " iterations with stress " + current);
+                stress = current;
+                return x;
+            }
+
+            previous = current;
+            next = x;
+            x = res;
+            iterations++;
+        }
+    }
+
+    /**
+     * Computes the rows [from, to) of B(x) x / n, and the stress of the rows
+     */
+    private static void guttmanTransform(double[] delta, int n, int dim, double[] x, double[] res, double[] rowStress, double[] ratio, int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            //squared distances to the i-th point
+            for (int j = 0; j < n; j++)
+                ratio[j] = 0;
+            for (int k = 0; k < dim; k++)
+            {
+                int base = k * n;
+                double xi = x[base + i];
+                for (int j = 0; j < n; j++)
+                {
+                    double diff = xi - x[base + j];
+                    ratio[j] += diff * diff;
+                }
+            }
+
+            //b_ij = d_ij / |x_i - x_j| (zero for coincident points)
+            int row = i * n;
+            double sumStress = 0;
+            double sumRatio = 0;
+            for (int j = 0; j < n; j++)
+            {
+                double dist = Math.sqrt(ratio[j]);
+                double diff = delta[row + j] - dist;
+                sumStress += diff * diff;
+
+                double r = (dist > EPS ? delta[row + j] / dist : 0);
+                ratio[j] = r;
+                sumRatio += r;
+            }
+            rowStress[i] = sumStress;
+
+            //the i-th row of the transform: sum of b_ij (x_i - x_j) over j
+            for (int k = 0; k < dim; k++)
+            {
+                int base = k * n;
+                double sum = 0;
+                for (int j = 0; j < n; j++)
+                    sum += ratio[j] * x[base + j];
+
+                res[base + i] = (sumRatio * x[base + i] - sum) / n;
+            }
+        }
+    }
+}
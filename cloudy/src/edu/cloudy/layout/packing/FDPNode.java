@@ -147,51 +147,55 @@ public class FDPNode
         return force;
     }
 
-    public double semanticCost(FDPNode[] x, double[][] similarity)
+    /**
+     * @param neighbors the nodes with non-zero similarity to this one (in increasing order)
+     * @param weights the similarities to the neighbors
+     */
+    public double semanticCost(FDPNode[] x, int[] neighbors, double[] weights)
     {
         double cost = 0;
-        for (int i = 0; i < x.length; i++)
-            if (i != index)
-            {
-                double dx = Math.abs(x[i].getCenterX() - rect.getCenterX()) - x[i].getWidth() / 2 - rect.getWidth() / 2;
-                double dy = Math.abs(x[i].getCenterY() - rect.getCenterY()) - x[i].getHeight() / 2 - rect.getHeight() / 2;
-                if (dx <= 0 && dy <= 0)
-                    continue;
-                
-                double mx = Math.max(dx, dy);
-                double w = similarity[index][i];
-                //cost += 2 * mx * mx * w * w;
-                cost += 2 * mx * w * w;
-            }
+        for (int k = 0; k < neighbors.length; k++)
+        {
+            int i = neighbors[k];
+            double dx = Math.abs(x[i].getCenterX() - rect.getCenterX()) - x[i].getWidth() / 2 - rect.getWidth() / 2;
+            double dy = Math.abs(x[i].getCenterY() - rect.getCenterY()) - x[i].getHeight() / 2 - rect.getHeight() / 2;
+            if (dx <= 0 && dy <= 0)
+                continue;
+            
+            double mx = Math.max(dx, dy);
+            double w = weights[k];
+            //cost += 2 * mx * mx * w * w;
+            cost += 2 * mx * w * w;
+        }
 
         cost *= PackingCostCalculator.SEMANTIC_IMPORTANCE;
         return cost;
     }
 
-    public SWCPoint semanticForce(FDPNode[] x, double[][] similarity)
+    public SWCPoint semanticForce(FDPNode[] x, int[] neighbors, double[] weights)
     {
         SWCPoint force = new SWCPoint();
-        for (int i = 0; i < x.length; i++)
-            if (i != index)
-            {
-                double dx = Math.abs(x[i].getCenterX() - rect.getCenterX()) - x[i].getWidth() / 2 - rect.getWidth() / 2;
-                double dy = Math.abs(x[i].getCenterY() - rect.getCenterY()) - x[i].getHeight() / 2 - rect.getHeight() / 2;
-                if (dx <= 0 && dy <= 0)
-                    continue;
-
-                //double mx = Math.max(dx, dy);
-                double frx = (x[index].getCenterX() - x[i].getCenterX());
-                double fry = (x[index].getCenterY() - x[i].getCenterY());
-
-                SWCPoint fr = new SWCPoint(frx, fry);
-                fr.normalize();
-                
-                double w = similarity[index][i];
-                //fr.scale(mx);
-                fr.scale(w);
-                fr.scale(w);
-                force.add(fr);
-            }
+        for (int k = 0; k < neighbors.length; k++)
+        {
+            int i = neighbors[k];
+            double dx = Math.abs(x[i].getCenterX() - rect.getCenterX()) - x[i].getWidth() / 2 - rect.getWidth() / 2;
+            double dy = Math.abs(x[i].getCenterY() - rect.getCenterY()) - x[i].getHeight() / 2 - rect.getHeight() / 2;
+            if (dx <= 0 && dy <= 0)
+                continue;
+
+            //double mx = Math.max(dx, dy);
+            double frx = (x[index].getCenterX() - x[i].getCenterX());
+            double fry = (x[index].getCenterY() - x[i].getCenterY());
+
+            SWCPoint fr = new SWCPoint(frx, fry);
+            fr.normalize();
+            
+            double w = weights[k];
+            //fr.scale(mx);
+            fr.scale(w);
+            fr.scale(w);
+            force.add(fr);
+        }
 
         force.scale(PackingCostCalculator.SEMANTIC_IMPORTANCE);
         return force;
@@ -33,7 +33,7 @@ public class ForceDirectedPackingAlgo extends BaseLayoutAlgo
     protected void run()
     {
         //initial layout
-        LayoutResult initialLayout = new MDSAlgo(false).layout(wordGraph);
+        LayoutResult initialLayout = new MDSAlgo(false, scalingAlgo).layout(wordGraph);
         IntStream.range(0, words.length).forEach(i -> wordPositions[i] = initialLayout.getWordPosition(words[i]));
 
         runFDAdjustments();
@@ -2,6 +2,7 @@ package edu.cloudy.layout.packing;
 
 import edu.cloudy.geom.SWCPoint;
 import edu.cloudy.geom.SWCRectangle;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 /**
  * @author spupyrev
@@ -16,12 +17,24 @@ public class PackingCostCalculator
 
     private SWCRectangle bbox;
     
-    private double[][] similarity;
+    //non-zero similarities of every word
+    private int[][] neighbors;
+    private double[][] weights;
 
-    public PackingCostCalculator(SWCRectangle bbox, double[][] similarity)
+    public PackingCostCalculator(SWCRectangle bbox, SimilarityMatrix similarity)
     {
         this.bbox = bbox;
-        this.similarity = similarity;
+
+        int n = similarity.size();
+        neighbors = new int[n][];
+        weights = new double[n][];
+        for (int i = 0; i < n; i++)
+        {
+            neighbors[i] = similarity.neighbors(i);
+            weights[i] = new double[neighbors[i].length];
+            for (int k = 0; k < neighbors[i].length; k++)
+                weights[i][k] = similarity.get(i, neighbors[i][k]);
+        }
     }
 
     public double cost(FDPNode[] x)
@@ -47,7 +60,7 @@ public class PackingCostCalculator
     {
         double cost = 0;
         for (int i = 0; i < x.length; i++)
-            cost += x[i].semanticCost(x, similarity);
+            cost += x[i].semanticCost(x, neighbors[i], weights[i]);
 
         return cost;
     }
@@ -56,10 +69,10 @@ public class PackingCostCalculator
     {
         SWCPoint oldPosition = x[index].getCenter();
 
-        double oldCost = x[index].semanticCost(x, similarity);
+        double oldCost = x[index].semanticCost(x, neighbors[index], weights[index]);
         x[index].setCenter(newPosition.x(), newPosition.y());
 
-        double newCost = x[index].semanticCost(x, similarity);
+        double newCost = x[index].semanticCost(x, neighbors[index], weights[index]);
         x[index].setCenter(oldPosition.x(), oldPosition.y());
 
         return oldCost - newCost;
@@ -67,7 +80,7 @@ public class PackingCostCalculator
 
     public SWCPoint semanticForce(FDPNode[] x, int index)
     {
-        return x[index].semanticForce(x, similarity);
+        return x[index].semanticForce(x, neighbors[index], weights[index]);
     }
 
     public double repulsiveCost(FDPNode[] x)
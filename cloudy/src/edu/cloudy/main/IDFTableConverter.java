@@ -0,0 +1,46 @@
+package edu.cloudy.main;
+
+import edu.cloudy.nlp.ranking.IDFTable;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts the IDF table of the Brown corpus (a serialized map) into the binary format,
+ * which is memory-mapped when the file is passed in the -Dcloudy.idf.brown property
+ *
+ * usage: IDFTableConverter output-file
+ */
+public class IDFTableConverter
+{
+    public static void main(String[] args)
+    {
+        if (args.length != 1)
+        {
+            System.out.println("Usage: java -cp cloudy.jar edu.cloudy.main.IDFTableConverter output-file");
+            System.exit(1);
+        }
+
+        try
+        {
+            Path file = Paths.get(args[0]);
+            IDFTable table = IDFTable.getBrown();
+            table.save(file);
+
+            //sanity check
+            IDFTable mapped = IDFTable.map(file);
+            for (int i = 0; i < table.size(); i++)
+            {
+                String term = table.getTerm(i);
+                if (mapped.getDocumentFrequency(term) != table.getDocumentFrequency(term))
+                    throw new RuntimeException("the converted table differs for '" + term + "'");
+            }
+
+            System.out.println("written " + table.size() + " terms to '" + file + "'");
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
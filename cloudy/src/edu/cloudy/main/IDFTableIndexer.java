@@ -0,0 +1,54 @@
+package edu.cloudy.main;
+
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.ranking.IDFTable;
+import edu.cloudy.nlp.ranking.IDFTableBuilder;
+import edu.cloudy.utils.Logger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Builds an IDF table (in the binary format) from a directory of documents;
+ * if the table exists, the documents which appeared in the directory since it was saved are added to it
+ *
+ * usage: IDFTableIndexer table-file directory [language]
+ */
+public class IDFTableIndexer
+{
+    public static void main(String[] args)
+    {
+        if (args.length < 2)
+        {
+            System.out.println("Usage: java -cp cloudy.jar edu.cloudy.main.IDFTableIndexer table-file directory [language]");
+            System.exit(1);
+        }
+
+        try
+        {
+            Logger.doLogging = false;
+
+            Path table = Paths.get(args[0]);
+            ParseOptions parseOptions = new ParseOptions();
+            if (args.length > 2)
+                parseOptions.setLanguage(args[2]);
+
+            IDFTableBuilder builder;
+            if (Files.exists(table))
+                builder = new IDFTableBuilder(IDFTable.map(table), parseOptions);
+            else
+                builder = new IDFTableBuilder(parseOptions);
+
+            int before = builder.getDocumentCount();
+            builder.addDirectory(Paths.get(args[1]));
+            builder.save(table);
+
+            System.out.println("added " + (builder.getDocumentCount() - before) + " documents, " + builder.getDocumentCount() + " in total");
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
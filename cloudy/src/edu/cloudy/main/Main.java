@@ -6,27 +6,38 @@ import edu.cloudy.layout.LayoutAlgo;
 import edu.cloudy.layout.LayoutAlgorithmRegistry;
 import edu.cloudy.layout.LayoutResult;
 import edu.cloudy.layout.WordGraph;
+import edu.cloudy.layout.mds.ScalingAlgorithmRegistry;
 import edu.cloudy.main.cmd.CommandLineArguments;
 import edu.cloudy.nlp.SWCDocument;
+import edu.cloudy.nlp.SWCStreamingDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.nlp.ranking.IDFTableRegistry;
 import edu.cloudy.nlp.ranking.RankingAlgo;
 import edu.cloudy.nlp.ranking.RankingAlgorithmRegistry;
+import edu.cloudy.nlp.ranking.TFIDFRankingAlgo;
 import edu.cloudy.nlp.similarity.SimilarityAlgo;
 import edu.cloudy.nlp.similarity.SimilarityAlgorithmRegistry;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
+import edu.cloudy.nlp.similarity.SimilaritySparsifier;
 import edu.cloudy.render.RenderUtils;
 import edu.cloudy.render.UIWord;
 import edu.cloudy.render.WordCloudRenderer;
 import edu.cloudy.utils.FontUtils;
 import edu.cloudy.utils.FontUtils.AWTFontProvider;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -35,6 +46,9 @@ import java.util.Scanner;
  */
 public class Main
 {
+    //larger clouds keep only non-zero similarities, if most of them are zero
+    private static final int SPARSE_WORD_COUNT = 500;
+
     public static void main(String[] args)
     {
         CommandLineArguments cmd = new CommandLineArguments(args);
@@ -68,7 +82,7 @@ public class Main
         List<Word> words = ranking(document, cmd);
 
         // calculate pairwise similarities
-        Map<ItemPair<Word>, Double> similarity = computeSimilarity(document, cmd);
+        SimilarityMatrix similarity = computeSimilarity(document, cmd);
 
         //create graph
         WordGraph wordGraph = new WordGraph(words, similarity);
@@ -83,8 +97,11 @@ public class Main
         visualize(wordGraph, layout, colorScheme, cmd);
     }
 
-    private SWCDocument readDocument(CommandLineArguments cmd) throws FileNotFoundException
+    private SWCDocument readDocument(CommandLineArguments cmd) throws IOException
     {
+        if (cmd.isStreamInput())
+            return readStreamingDocument(cmd);
+
         Scanner scanner = cmd.getInputFile() != null ? new Scanner(new File(cmd.getInputFile())) : new Scanner(System.in);
         StringBuilder sb = new StringBuilder();
         while (scanner.hasNextLine())
@@ -99,9 +116,32 @@ public class Main
         return doc;
     }
 
+    private SWCDocument readStreamingDocument(CommandLineArguments cmd) throws IOException
+    {
+        InputStream in = cmd.getInputFile() != null ? new FileInputStream(cmd.getInputFile()) : System.in;
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        SWCDocument doc = new SWCStreamingDocument(reader);
+        try
+        {
+            doc.parse(cmd.getParseOptions());
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        return doc;
+    }
+
     private List<Word> ranking(SWCDocument document, CommandLineArguments cmd)
     {
         RankingAlgo algo = RankingAlgorithmRegistry.getById(cmd.getRankAlgorithm());
+        if (cmd.getIDFTable() != null && algo instanceof TFIDFRankingAlgo)
+        {
+            IDFTableRegistry.register(cmd.getIDFTable(), Paths.get(cmd.getIDFTable()));
+            ((TFIDFRankingAlgo)algo).setIDFTable(cmd.getIDFTable());
+        }
         document.weightFilter(cmd.getMaxWords(), algo);
 
         List<Word> words = document.getWords();
@@ -111,16 +151,25 @@ public class Main
         return words;
     }
 
-    private Map<ItemPair<Word>, Double> computeSimilarity(SWCDocument document, CommandLineArguments cmd)
+    private SimilarityMatrix computeSimilarity(SWCDocument document, CommandLineArguments cmd)
     {
         SimilarityAlgo algo = SimilarityAlgorithmRegistry.getById(cmd.getSimilarityAlgorithm());
-        return algo.computeSimilarity(document);
+        //a sparsified matrix is sparse anyway; a dense one is cheaper with dense storage
+        algo.setSparse(cmd.getMaxWords() > SPARSE_WORD_COUNT && algo.isNaturallySparse());
+        SimilarityMatrix similarity = algo.computeSimilarity(document);
+
+        if (cmd.getTopNeighbors() > 0 || cmd.getSimilarityThreshold() > 0)
+            similarity = new SimilaritySparsifier(cmd.getTopNeighbors(), cmd.getSimilarityThreshold()).sparsify(similarity);
+
+        return similarity;
     }
 
     private LayoutResult layout(WordGraph wordGraph, CommandLineArguments cmd)
     {
         LayoutAlgo algo = LayoutAlgorithmRegistry.getById(cmd.getLayoutAlgorithm());
         algo.setAspectRatio(cmd.getAspectRatio());
+        if (cmd.getScalingAlgorithm() != null)
+            algo.setScalingAlgo(ScalingAlgorithmRegistry.getById(cmd.getScalingAlgorithm()));
         return algo.layout(wordGraph);
     }
 
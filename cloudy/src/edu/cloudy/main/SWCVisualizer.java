@@ -94,7 +94,7 @@ public class SWCVisualizer
     private Map<ItemPair<Word>, Double> extractSimilarities(SWCDocument document, List<Word> words)
     {
         SimilarityAlgo coOccurenceAlgo = new CosineCoOccurenceAlgo();
-        Map<ItemPair<Word>, Double> similarity = coOccurenceAlgo.computeSimilarity(document);
+        Map<ItemPair<Word>, Double> similarity = coOccurenceAlgo.computeSimilarity(document).asMap();
 
         for (Word w : document.getWords())
             words.add(w);
@@ -25,10 +25,15 @@ public class CommandLineArguments
     private int maxHeight = 1024;
     private double aspectRatio = 16.0 / 9.0;
     private String layoutAlgorithm = "cp";
+    private String scalingAlgorithm;
     private String rankAlgorithm = "tf";
+    private String idfTable;
     private String similarityAlgorithm = "cos";
+    private int topNeighbors = 0;
+    private double similarityThreshold = 0;
     private String font = "Arial";
     private String color = "7";
+    private boolean streamInput = false;
 
     private ParseOptions parseOptions = new ParseOptions();
 
@@ -43,7 +48,7 @@ public class CommandLineArguments
         System.out.println("\twhere input file must contain a text with at least 10 distinct words. If no input file is supplied, the program reads from stdin.");
         System.out.println("\tAcceptable options are:");
 
-        System.out.println("\t-sv      - set maximum number of rendered words to 'v', allowed values are between 10 and 500 (50)");
+        System.out.println("\t-sv      - set maximum number of rendered words to 'v', allowed values are between 10 and 5000 (50)");
         System.out.println("\t-wv      - set maximum width of drawing to 'v', in pixels (1280)");
         System.out.println("\t-hv      - set maximum height of drawing to 'v', in pixels (1024)");
         System.out.println("\t-aw:h    - set desired aspect ratio (width/height) for the drawing (16:9)");
@@ -76,21 +81,32 @@ public class CommandLineArguments
         System.out.println("\t     mds : Force-Directed Packing");
         System.out.println("\t      sf : Star Forest");
         System.out.println("\t      cc : Cycle Cover");
+        System.out.println("\t-Mmds    - specifies which mds algorithm computes the initial layout of cp, sc, ip and mds (chosen by the number of words)");
+        System.out.println("\t      ds : Distance Scaling");
+        System.out.println("\t  smacof : Stress Majorization");
+        System.out.println("\t      cs : Classical Scaling");
+        System.out.println("\t    lmds : Landmark Scaling");
+        System.out.println("\t   rlmds : Landmark Scaling refined by Stress Majorization (quadratic in the number of words)");
 
         System.out.println("\t-Rrank   - specifies which ranking algorithm to use (tf)");
         System.out.println("\t      tf : Term Frequency");
         System.out.println("\t  tf-idf : Term Frequency normalized by Brown document corpus");
         System.out.println("\t     lex : Graph-based Lexical Centrality");
+        System.out.println("\t-ifile   - use the IDF table from 'file' (built by IDFTableIndexer) for tf-idf ranking (Brown corpus)");
 
         System.out.println("\t-Ssim    - specifies which similarity algorithm to use (cos)");
         System.out.println("\t     cos : Cosine Coefficient");
         System.out.println("\t     jac : Jaccard Coefficient");
         System.out.println("\t     lex : Lin's Lexical Similarity");
+        System.out.println("\t-kv      - keep only similarities of every word to its 'v' most similar words, 0 keeps all (0)");
+        System.out.println("\t-tv      - keep only similarities of at least 'v', a value between 0 and 1 (0)");
 
         System.out.println("\t-ps      - do NOT remove stop words");
         System.out.println("\t-pg      - do NOT group similar words");
         System.out.println("\t-pn      - do NOT remove numbers");
         System.out.println("\t-plv     - set minimum length of words to 'v' (3)");
+        System.out.println("\t-pp      - parse the input using all available cores");
+        System.out.println("\t-pr      - parse the input as a stream without keeping the whole text in memory (for very large inputs)");
         
         System.out.println("\t-llang   - set the language of the input text to 'lang' (en)");
         System.out.println("\t      ar : Arabic");
@@ -139,8 +155,10 @@ public class CommandLineArguments
         parsers.add(new StringArgumentParser("-T", (cmd, value) -> cmd.outputFormat = value));
         parsers.add(new StringArgumentParser("-C", (cmd, value) -> cmd.color = value));
         parsers.add(new StringArgumentParser("-L", (cmd, value) -> cmd.layoutAlgorithm = value));
+        parsers.add(new StringArgumentParser("-M", (cmd, value) -> cmd.scalingAlgorithm = value));
         parsers.add(new StringArgumentParser("-R", (cmd, value) -> cmd.rankAlgorithm = value));
         parsers.add(new StringArgumentParser("-S", (cmd, value) -> cmd.similarityAlgorithm = value));
+        parsers.add(new StringArgumentParser("-i", (cmd, value) -> cmd.idfTable = value));
         parsers.add(new StringArgumentParser("-a", (cmd, value) ->
         {
             String[] tmp = value.split(":");
@@ -148,13 +166,17 @@ public class CommandLineArguments
             double h = Double.valueOf(tmp[1]);
             cmd.aspectRatio = w / h;
         }));
-        parsers.add(new IntegerArgumentParser("-s", 10, 500, (cmd, value) -> cmd.maxWords = value));
+        parsers.add(new IntegerArgumentParser("-s", 10, 5000, (cmd, value) -> cmd.maxWords = value));
+        parsers.add(new IntegerArgumentParser("-k", 0, 5000, (cmd, value) -> cmd.topNeighbors = value));
+        parsers.add(new DoubleArgumentParser("-t", 0, 1, (cmd, value) -> cmd.similarityThreshold = value));
         parsers.add(new IntegerArgumentParser("-w", 256, 8192, (cmd, value) -> cmd.maxWidth = value));
         parsers.add(new IntegerArgumentParser("-h", 192, 4800, (cmd, value) -> cmd.maxHeight = value));
         parsers.add(new StringArgumentParser("-ps", (cmd, value) -> cmd.parseOptions.setRemoveStopwords(false)));
         parsers.add(new StringArgumentParser("-pg", (cmd, value) -> cmd.parseOptions.setStemWords(false)));
         parsers.add(new StringArgumentParser("-pn", (cmd, value) -> cmd.parseOptions.setRemoveNumbers(false)));
         parsers.add(new IntegerArgumentParser("-pl", 1, 30, (cmd, value) -> cmd.parseOptions.setMinWordLength(value)));
+        parsers.add(new StringArgumentParser("-pp", (cmd, value) -> cmd.parseOptions.setParallel(true)));
+        parsers.add(new StringArgumentParser("-pr", (cmd, value) -> cmd.streamInput = true));
         parsers.add(new StringArgumentParser("-l", (cmd, value) -> cmd.parseOptions.setLanguage(value)));
         parsers.add(new StringArgumentParser("-f", (cmd, value) -> cmd.font = value));
         parsers.add(new StringArgumentParser("-?", (cmd, value) -> cmd.printUsage = true));
@@ -218,11 +240,21 @@ public class CommandLineArguments
         return layoutAlgorithm;
     }
 
+    public String getScalingAlgorithm()
+    {
+        return scalingAlgorithm;
+    }
+
     public String getRankAlgorithm()
     {
         return rankAlgorithm;
     }
 
+    public String getIDFTable()
+    {
+        return idfTable;
+    }
+
     public int getMaxWords()
     {
         return maxWords;
@@ -233,6 +265,16 @@ public class CommandLineArguments
         return similarityAlgorithm;
     }
 
+    public int getTopNeighbors()
+    {
+        return topNeighbors;
+    }
+
+    public double getSimilarityThreshold()
+    {
+        return similarityThreshold;
+    }
+
     public double getAspectRatio()
     {
         return aspectRatio;
@@ -253,4 +295,9 @@ public class CommandLineArguments
         return color;
     }
 
+    public boolean isStreamInput()
+    {
+        return streamInput;
+    }
+
 }
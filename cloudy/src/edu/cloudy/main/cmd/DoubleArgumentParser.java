@@ -0,0 +1,47 @@
+package edu.cloudy.main.cmd;
+
+/**
+ * Real-valued option clamped to the given bounds; a malformed value is reported and ignored
+ */
+class DoubleArgumentParser implements BaseArgumentParser
+{
+    private String prefix;
+    private ArgumentParser<Double> parser;
+    private double lowerBound;
+    private double upperBound;
+
+    public DoubleArgumentParser(String prefix, double lowerBound, double upperBound, ArgumentParser<Double> parser)
+    {
+        this.prefix = prefix;
+        this.parser = parser;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    public boolean accept(String option)
+    {
+        return option.startsWith(prefix);
+    }
+
+    public void apply(CommandLineArguments cmd, String option)
+    {
+        String value = option.substring(prefix.length());
+        double dValue;
+        try
+        {
+            dValue = Double.valueOf(value);
+        }
+        catch (NumberFormatException e)
+        {
+            dValue = Double.NaN;
+        }
+
+        if (Double.isNaN(dValue))
+        {
+            System.out.println("incorrect value of option '" + prefix + "': '" + value + "'");
+            return;
+        }
+
+        parser.apply(cmd, Math.min(Math.max(dValue, lowerBound), upperBound));
+    }
+}
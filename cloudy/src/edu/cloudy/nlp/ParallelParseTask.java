@@ -0,0 +1,62 @@
+package edu.cloudy.nlp;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a range of sentences on a fork-join pool:
+ *   - the range is split in halves until it is small enough
+ *   - every leaf collects its own statistics using a thread-local parser
+ *   - partial statistics are merged in the order of sentences,
+ *     so the result is identical to the serial parsing
+ */
+class ParallelParseTask extends RecursiveTask<StemStatistics>
+{
+    private static final long serialVersionUID = 2425086618307574219L;
+
+    //the minimum number of sentences processed by a single task
+    private static final int GRAIN_SIZE = 256;
+
+    private List<String> sentences;
+    private int from;
+    private int to;
+    private SentenceParser sentenceParser;
+
+    public ParallelParseTask(List<String> sentences, SentenceParser sentenceParser)
+    {
+        this(sentences, 0, sentences.size(), sentenceParser);
+    }
+
+    private ParallelParseTask(List<String> sentences, int from, int to, SentenceParser sentenceParser)
+    {
+        this.sentences = sentences;
+        this.from = from;
+        this.to = to;
+        this.sentenceParser = sentenceParser;
+    }
+
+    @Override
+    protected StemStatistics compute()
+    {
+        if (to - from <= GRAIN_SIZE)
+        {
+            SentenceParser parser = sentenceParser.copy();
+            StemStatistics statistics = new StemStatistics();
+            for (int i = from; i < to; i++)
+                parser.parse(sentences.get(i), i, statistics);
+
+            return statistics;
+        }
+
+        int mid = (from + to) >>> 1;
+        ParallelParseTask left = new ParallelParseTask(sentences, from, mid, sentenceParser);
+        ParallelParseTask right = new ParallelParseTask(sentences, mid, to, sentenceParser);
+
+        left.fork();
+        StemStatistics rightStatistics = right.compute();
+        StemStatistics leftStatistics = left.join();
+
+        leftStatistics.merge(rightStatistics);
+        return leftStatistics;
+    }
+}
@@ -15,6 +15,7 @@ public class ParseOptions
     private boolean stemWords = true;
     private boolean removeNumbers = true;
     private int minWordLength = 3;
+    private boolean parallel = false;
     private Language language = LanguageRegistry.getById("en");
 
     public int getMinWordLength()
@@ -57,6 +58,19 @@ public class ParseOptions
         this.removeNumbers = removeNumbers;
     }
 
+    /**
+     * whether sentences are tokenized and stemmed on several cores
+     */
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+    }
+
     public Language getLanguage()
     {
         return language;
@@ -2,18 +2,13 @@ package edu.cloudy.nlp;
 
 import edu.cloudy.colors.ColorScheme;
 import edu.cloudy.layout.LayoutResult;
+import edu.cloudy.nlp.lang.ModelRegistry;
 import edu.cloudy.nlp.ranking.RankingAlgo;
 import edu.cloudy.render.UIWord;
-import edu.cloudy.utils.CommonUtils;
 import opennlp.tools.sentdetect.SentenceDetectorME;
-import opennlp.tools.sentdetect.SentenceModel;
-import opennlp.tools.tokenize.Tokenizer;
-import opennlp.tools.tokenize.TokenizerME;
-import opennlp.tools.tokenize.TokenizerModel;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author spupyrev
@@ -59,85 +54,23 @@ public class SWCDocument
      */
     public void parse(ParseOptions parseOptions)
     {
-        Tokenizer tokenizer = buildTokenizer(parseOptions);
         List<String> sentences = buildSentences(parseOptions);
-        Set<String> stopwords = (parseOptions.isRemoveStopwords() ? buildStopwords(parseOptions) : Collections.EMPTY_SET);
+        SentenceParser sentenceParser = new SentenceParser(parseOptions);
 
-        //stem => word
-        Map<String, Word> wordMap = new HashMap<String, Word>();
-        //stem => list of original words
-        Map<String, List<String>> stemMap = new HashMap<String, List<String>>();
-
-        for (int i = 0; i < sentences.size(); i++)
+        StemStatistics statistics;
+        if (parseOptions.isParallel())
         {
-            String[] temp = tokenizer.tokenize(sentences.get(i));
-            for (int j = 0; j < temp.length; j++)
-            {
-                String currentWord = temp[j].toLowerCase();
-                //words of length >= 3
-                if (currentWord.length() < parseOptions.getMinWordLength())
-                    continue;
-
-                //only consider words starting with letters
-                if (!isWord(currentWord, parseOptions))
-                    continue;
-
-                String currentStem = getStemmedWord(currentWord, parseOptions);
-
-                //skip stopwords
-                if (stopwords.contains(currentWord) || stopwords.contains(currentStem))
-                    continue;
-
-                if (!wordMap.containsKey(currentStem))
-                {
-                    wordMap.put(currentStem, new Word("", 0.0));
-                    stemMap.put(currentStem, new ArrayList<String>());
-                }
-
-                wordMap.get(currentStem).stem = currentStem;
-                wordMap.get(currentStem).addSentence(i);
-                stemMap.get(currentStem).add(temp[j]);
-            }
+            statistics = ForkJoinPool.commonPool().invoke(new ParallelParseTask(sentences, sentenceParser));
         }
-
-        //restore the most popular word variant
-        words = new ArrayList<Word>();
-        for (String stem : wordMap.keySet())
-        {
-            Map<String, Integer> variants = new HashMap<String, Integer>();
-            for (String w : stemMap.get(stem))
-            {
-                if (!variants.containsKey(w))
-                    variants.put(w, 0);
-
-                variants.put(w, variants.get(w) + 1);
-            }
-
-            String bestVariant = null;
-            for (String variant : variants.keySet())
-                if (bestVariant == null || variants.get(variant) > variants.get(bestVariant))
-                    bestVariant = variant;
-
-            wordMap.get(stem).word = bestVariant;
-            words.add(wordMap.get(stem));
-        }
-    }
-
-    private boolean isWord(String currentWord, ParseOptions parseOptions)
-    {
-        char firstCharacter = currentWord.charAt(0);
-        if (!Character.isLetter(firstCharacter) && firstCharacter != '#')
-            return false;
-
-        for (int i = 1; i < currentWord.length(); i++)
+        else
         {
-            char c = currentWord.charAt(i);
-            boolean isLetter = Character.isLetter(c) || c == '-';
-            if (parseOptions.isRemoveNumbers() && !isLetter)
-                return false;
+            statistics = new StemStatistics();
+            for (int i = 0; i < sentences.size(); i++)
+                sentenceParser.parse(sentences.get(i), i, statistics);
         }
 
-        return true;
+        statistics.seal();
+        words = statistics.buildWords();
     }
 
     private List<String> buildSentences(ParseOptions parseOptions)
@@ -145,33 +78,7 @@ public class SWCDocument
         if (sentences != null)
             return sentences;
 
-        InputStream modelIn1;
-        modelIn1 = CommonUtils.getResourceAsStream(parseOptions.getLanguage().getSentFile());
-
-        SentenceModel model1 = null;
-        try
-        {
-            model1 = new SentenceModel(modelIn1);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException(e);
-        }
-        finally
-        {
-            if (modelIn1 != null)
-            {
-                try
-                {
-                    modelIn1.close();
-                }
-                catch (IOException e)
-                {
-                    throw new RuntimeException(e);
-                }
-            }
-        }
-        SentenceDetectorME sentenceDetector = new SentenceDetectorME(model1);
+        SentenceDetectorME sentenceDetector = ModelRegistry.getSentenceDetector(parseOptions.getLanguage());
 
         // Split into sentences
         sentences = Arrays.asList(sentenceDetector.sentDetect(text));
@@ -179,79 +86,108 @@ public class SWCDocument
         return sentences;
     }
 
-    private Tokenizer buildTokenizer(ParseOptions parseOptions)
+    /**
+     * The number of occurrences of the word used for ranking
+     */
+    public double getTermFrequency(Word word)
     {
-        InputStream modelIn2 = CommonUtils.getResourceAsStream(parseOptions.getLanguage().getTokenFile());
-        TokenizerModel model2 = null;
-        try
-        {
-            model2 = new TokenizerModel(modelIn2);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException(e);
-        }
-        finally
-        {
-            if (modelIn2 != null)
-            {
-                try
-                {
-                    modelIn2.close();
-                }
-                catch (IOException e)
-                {
-                    throw new RuntimeException(e);
-                }
-            }
-        }
-        Tokenizer tokenizer = new TokenizerME(model2);
-        return tokenizer;
+        return word.getFrequency();
     }
 
-    private String getStemmedWord(String word, ParseOptions parseOptions)
+    /**
+     * Keep the most important words
+     */
+    public void weightFilter(int maxWords, RankingAlgo rankingAlgo)
     {
-        if (!parseOptions.isStemWords())
-            return word;
+        rankingAlgo.buildWeights(this);
+        words = selectHeaviest(words, maxWords);
 
-        return TextUtils.stem(word, parseOptions);
+        rescaleWeights();
     }
 
-    private Set<String> buildStopwords(ParseOptions parseOptions)
+    /**
+     * The k heaviest words ordered by decreasing weights; words of equal weights keep their order.
+     * Only the selected words are ordered (using a bounded min-heap), and the result does not
+     * reference the input list
+     */
+    public static List<Word> selectHeaviest(List<Word> words, int k)
     {
-        Set<String> stopWords = new HashSet<String>();
+        Word[] all = words.toArray(new Word[words.size()]);
+        k = Math.max(0, Math.min(k, all.length));
 
-        try
+        //indices of the heaviest words seen so far; the root is the lightest of them
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < all.length && k > 0; i++)
         {
-            Scanner br = new Scanner(CommonUtils.getResourceAsStream(parseOptions.getLanguage().getStopwordsFile()), "UTF-8");
-            while (br.hasNext())
+            if (size < k)
+            {
+                heap[size] = i;
+                siftUp(all, heap, size++);
+            }
+            else if (lighter(all, heap[0], i))
             {
-                String token = br.next();
-                String word = token.toLowerCase().trim();
-                stopWords.add(word);
+                heap[0] = i;
+                siftDown(all, heap, size);
             }
-            br.close();
         }
-        catch (IllegalArgumentException e)
+
+        //extracting the lightest word first
+        Word[] result = new Word[k];
+        while (size > 0)
         {
-            throw new RuntimeException(e);
+            result[size - 1] = all[heap[0]];
+            heap[0] = heap[--size];
+            siftDown(all, heap, size);
         }
 
-        return stopWords;
+        return new ArrayList<Word>(Arrays.asList(result));
     }
 
     /**
-     * Keep the most important words
+     * Whether the i-th word is ranked after the j-th one
      */
-    public void weightFilter(int maxWords, RankingAlgo rankingAlgo)
+    private static boolean lighter(Word[] words, int i, int j)
     {
-        rankingAlgo.buildWeights(this);
-        Collections.sort(words, Comparator.reverseOrder());
+        int c = Double.compare(words[i].weight, words[j].weight);
+        return (c != 0 ? c < 0 : i > j);
+    }
 
-        if (words.size() > maxWords)
-            words = words.subList(0, maxWords);
+    private static void siftUp(Word[] words, int[] heap, int pos)
+    {
+        while (pos > 0)
+        {
+            int parent = (pos - 1) / 2;
+            if (!lighter(words, heap[pos], heap[parent]))
+                break;
+
+            int tmp = heap[pos];
+            heap[pos] = heap[parent];
+            heap[parent] = tmp;
+            pos = parent;
+        }
+    }
 
-        rescaleWeights();
+    private static void siftDown(Word[] words, int[] heap, int size)
+    {
+        int pos = 0;
+        while (true)
+        {
+            int min = pos;
+            int left = 2 * pos + 1;
+            int right = left + 1;
+            if (left < size && lighter(words, heap[left], heap[min]))
+                min = left;
+            if (right < size && lighter(words, heap[right], heap[min]))
+                min = right;
+            if (min == pos)
+                break;
+
+            int tmp = heap[pos];
+            heap[pos] = heap[min];
+            heap[min] = tmp;
+            pos = min;
+        }
     }
 
     /**
@@ -0,0 +1,93 @@
+package edu.cloudy.nlp;
+
+import edu.cloudy.nlp.lang.ModelRegistry;
+import edu.cloudy.nlp.ranking.RankingAlgo;
+import opennlp.tools.sentdetect.SentenceDetectorME;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Document which grows as new text arrives (e.g., a feed of tweets):
+ *   - every batch of text is split into sentences and parsed once
+ *   - word counts, variants and sentence postings are updated in place
+ *   - weightFilter ranks all the words seen so far, without reparsing the history
+ *
+ * Neither the text nor the sentences are stored. Every refresh creates new word objects,
+ * so the words (and their weights) returned earlier are not changed by later appends
+ */
+public class SWCIncrementalDocument extends SWCDocument
+{
+    private ParseOptions parseOptions;
+    private StemStatistics statistics;
+    private int sentenceCount;
+
+    public SWCIncrementalDocument(ParseOptions parseOptions)
+    {
+        super(null);
+        this.parseOptions = parseOptions;
+        this.statistics = new StemStatistics();
+        setWords(statistics.snapshotWords());
+    }
+
+    /**
+     * Sentences are not stored for incremental documents
+     */
+    @Override
+    public List<String> getSentences()
+    {
+        return Collections.emptyList();
+    }
+
+    public synchronized int getSentenceCount()
+    {
+        return sentenceCount;
+    }
+
+    /**
+     * All the words seen so far (getWords returns the ones kept by the last weightFilter)
+     */
+    public synchronized List<Word> getAllWords()
+    {
+        return statistics.snapshotWords();
+    }
+
+    @Override
+    public synchronized List<Word> getWords()
+    {
+        return super.getWords();
+    }
+
+    /**
+     * The text is parsed when it is appended; the options of the constructor are used
+     */
+    @Override
+    public void parse(ParseOptions parseOptions)
+    {
+    }
+
+    /**
+     * Parses a batch of text and adds its words to the document;
+     * the batch is expected to consist of complete sentences
+     */
+    public synchronized void append(String text)
+    {
+        SentenceDetectorME sentenceDetector = ModelRegistry.getSentenceDetector(parseOptions.getLanguage());
+        List<String> sentences = TextUtils.splitSentences(Arrays.asList(sentenceDetector.sentDetect(text)));
+
+        SentenceParser sentenceParser = new SentenceParser(parseOptions);
+        for (String sentence : sentences)
+            sentenceParser.parse(sentence, sentenceCount++, statistics);
+    }
+
+    /**
+     * Keep the most important words among all the words seen so far
+     */
+    @Override
+    public synchronized void weightFilter(int maxWords, RankingAlgo rankingAlgo)
+    {
+        setWords(statistics.snapshotWords());
+        super.weightFilter(maxWords, rankingAlgo);
+    }
+}
@@ -0,0 +1,109 @@
+package edu.cloudy.nlp;
+
+import edu.cloudy.nlp.lang.ModelRegistry;
+import opennlp.tools.sentdetect.SentenceDetectorME;
+import opennlp.tools.util.Span;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Document parsed directly from a stream (used for very large inputs):
+ *   - the input is read chunk by chunk and split into sentences on the fly
+ *   - only per-stem counters are kept, so neither the text nor the sentences are available after parsing
+ */
+public class SWCStreamingDocument extends SWCDocument
+{
+    private static final int CHUNK_SIZE = 1 << 16;
+    //the last sentence of a chunk is postponed until the buffer grows that large
+    private static final int MAX_BUFFER_SIZE = 1 << 22;
+
+    private Reader reader;
+    private int sentenceCount;
+
+    public SWCStreamingDocument(Reader reader)
+    {
+        super(null);
+        this.reader = reader;
+    }
+
+    /**
+     * Sentences are not stored for streaming documents
+     */
+    @Override
+    public List<String> getSentences()
+    {
+        return Collections.emptyList();
+    }
+
+    public int getSentenceCount()
+    {
+        return sentenceCount;
+    }
+
+    /**
+     * Consumes the reader (the reader is not closed)
+     */
+    @Override
+    public void parse(ParseOptions parseOptions)
+    {
+        SentenceDetectorME sentenceDetector = ModelRegistry.getSentenceDetector(parseOptions.getLanguage());
+        SentenceParser sentenceParser = new SentenceParser(parseOptions);
+        StemStatistics statistics = new StemStatistics();
+
+        sentenceCount = 0;
+        StringBuilder buffer = new StringBuilder();
+        char[] chunk = new char[CHUNK_SIZE];
+        try
+        {
+            int len;
+            while ((len = reader.read(chunk)) != -1)
+            {
+                buffer.append(chunk, 0, len);
+                if (buffer.length() >= CHUNK_SIZE)
+                    processBuffer(buffer, false, sentenceDetector, sentenceParser, statistics);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+
+        processBuffer(buffer, true, sentenceDetector, sentenceParser, statistics);
+        statistics.seal();
+        setWords(statistics.buildWords());
+    }
+
+    /**
+     * Parses complete sentences from the buffer and removes them;
+     * the last sentence may continue in the next chunk, so it stays in the buffer
+     */
+    private void processBuffer(StringBuilder buffer, boolean lastChunk, SentenceDetectorME sentenceDetector, SentenceParser sentenceParser, StemStatistics statistics)
+    {
+        String text = buffer.toString();
+        Span[] spans = sentenceDetector.sentPosDetect(text);
+
+        int complete = spans.length;
+        int consumed = text.length();
+        if (!lastChunk && buffer.length() < MAX_BUFFER_SIZE)
+        {
+            if (spans.length <= 1)
+                return;
+
+            complete = spans.length - 1;
+            consumed = spans[complete].getStart();
+        }
+
+        List<String> sentences = new ArrayList<String>(complete);
+        for (int i = 0; i < complete; i++)
+            sentences.add(spans[i].getCoveredText(text).toString());
+
+        for (String sentence : TextUtils.splitSentences(sentences))
+            sentenceParser.parse(sentence, sentenceCount++, statistics);
+
+        buffer.delete(0, consumed);
+    }
+}
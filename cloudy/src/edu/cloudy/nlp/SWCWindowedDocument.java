@@ -0,0 +1,340 @@
+package edu.cloudy.nlp;
+
+import edu.cloudy.nlp.lang.ModelRegistry;
+import edu.cloudy.nlp.ranking.RankingAlgo;
+import opennlp.tools.sentdetect.SentenceDetectorME;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Document over an unbounded stream of timestamped text (e.g., live tweets):
+ *   - sentences older than the window are expired, so the memory is bounded by the window
+ *   - optionally, occurrences decay exponentially with the given half-life;
+ *     the decayed counts are used as term frequencies by the ranking algorithms
+ *
+ * Timestamps (in milliseconds) are expected to be non-decreasing;
+ * an older timestamp is treated as the latest one seen.
+ * The words are new objects on every refresh; their sentence ids are counted from
+ * the oldest sentence in the window, so they are smaller than getSentenceCount()
+ */
+public class SWCWindowedDocument extends SWCDocument
+{
+    //decay factors are renormalized when they grow that large
+    private static final double MAX_EXPONENT = 64;
+
+    private ParseOptions parseOptions;
+    private long windowLength;
+    //per millisecond; 0 if there is no decay
+    private double decayRate;
+
+    private Map<String, WindowEntry> entries = new LinkedHashMap<String, WindowEntry>();
+    private Deque<SentenceRecord> sentences = new ArrayDeque<SentenceRecord>();
+    private int nextSentenceId;
+
+    private long currentTime = Long.MIN_VALUE;
+    //decayed counts are stored relative to this time
+    private long referenceTime = Long.MIN_VALUE;
+
+    /**
+     * @param windowLength sentences older than this are forgotten
+     * @param halfLife occurrences lose half of their weight after this time (0 disables decay)
+     */
+    public SWCWindowedDocument(ParseOptions parseOptions, long windowLength, long halfLife)
+    {
+        super(null);
+        if (windowLength <= 0 || halfLife < 0)
+            throw new IllegalArgumentException("incorrect window parameters: " + windowLength + ", " + halfLife);
+
+        this.parseOptions = parseOptions;
+        this.windowLength = windowLength;
+        this.decayRate = (halfLife > 0 ? Math.log(2) / halfLife : 0);
+        setWords(new ArrayList<Word>());
+    }
+
+    /**
+     * Sentences are not stored for windowed documents
+     */
+    @Override
+    public List<String> getSentences()
+    {
+        return Collections.emptyList();
+    }
+
+    /**
+     * number of sentences in the window
+     */
+    public synchronized int getSentenceCount()
+    {
+        return sentences.size();
+    }
+
+    /**
+     * The text is parsed when it is appended; the options of the constructor are used
+     */
+    @Override
+    public void parse(ParseOptions parseOptions)
+    {
+    }
+
+    /**
+     * Parses a batch of text (consisting of complete sentences) observed at the given time
+     */
+    public synchronized void append(String text, long timestamp)
+    {
+        advanceTime(timestamp);
+
+        SentenceDetectorME sentenceDetector = ModelRegistry.getSentenceDetector(parseOptions.getLanguage());
+        List<String> batch = TextUtils.splitSentences(Arrays.asList(sentenceDetector.sentDetect(text)));
+
+        SentenceParser sentenceParser = new SentenceParser(parseOptions);
+        double increment = decayFactor(currentTime);
+        for (String sentence : batch)
+        {
+            if (nextSentenceId == Integer.MAX_VALUE)
+                renumber();
+
+            SentenceRecord record = new SentenceRecord(nextSentenceId++, currentTime);
+            sentenceParser.parse(sentence, record.id, (stem, variant, sentenceId) -> {
+                WindowEntry entry = entries.get(stem);
+                if (entry == null)
+                {
+                    entry = new WindowEntry(stem);
+                    entries.put(stem, entry);
+                }
+
+                entry.add(variant, sentenceId, increment);
+                record.add(entry, variant);
+            });
+
+            sentences.addLast(record);
+        }
+    }
+
+    /**
+     * Moves the clock forward expiring the sentences which left the window
+     */
+    public synchronized void advanceTime(long timestamp)
+    {
+        if (timestamp <= currentTime)
+            return;
+
+        currentTime = timestamp;
+        if (referenceTime == Long.MIN_VALUE)
+            referenceTime = currentTime;
+
+        expire();
+
+        if (decayRate * (currentTime - referenceTime) > MAX_EXPONENT)
+            renormalize();
+    }
+
+    /**
+     * All the words in the window (getWords returns the ones kept by the last weightFilter)
+     */
+    public synchronized List<Word> getAllWords()
+    {
+        int firstId = firstSentenceId();
+        List<Word> words = new ArrayList<Word>(entries.size());
+        for (WindowEntry entry : entries.values())
+            words.add(entry.snapshotWord(firstId));
+
+        return words;
+    }
+
+    /**
+     * The decayed number of occurrences of the word in the window
+     * (the number of occurrences if there is no decay)
+     */
+    @Override
+    public synchronized double getTermFrequency(Word word)
+    {
+        if (decayRate == 0)
+            return word.getFrequency();
+
+        WindowEntry entry = entries.get(word.stem);
+        if (entry == null)
+            return 0;
+
+        return entry.decayedCount / decayFactor(currentTime);
+    }
+
+    /**
+     * Keep the most important words among the words in the window
+     */
+    @Override
+    public synchronized void weightFilter(int maxWords, RankingAlgo rankingAlgo)
+    {
+        setWords(getAllWords());
+        super.weightFilter(maxWords, rankingAlgo);
+    }
+
+    private void expire()
+    {
+        long minTime = currentTime - windowLength;
+        if (sentences.isEmpty() || sentences.peekFirst().timestamp > minTime)
+            return;
+
+        //remove the expired occurrences
+        while (!sentences.isEmpty() && sentences.peekFirst().timestamp <= minTime)
+        {
+            SentenceRecord record = sentences.pollFirst();
+            double decrement = decayFactor(record.timestamp);
+            for (int i = 0; i < record.size; i++)
+                record.entries[i].remove(record.variants[i], decrement);
+        }
+
+        //the postings of the remaining sentences start here
+        int firstId = firstSentenceId();
+        Iterator<WindowEntry> it = entries.values().iterator();
+        while (it.hasNext())
+        {
+            WindowEntry entry = it.next();
+            if (entry.removed == 0)
+                continue;
+
+            entry.word.removeSentencesBefore(firstId, entry.removed);
+            entry.removed = 0;
+            if (entry.word.getFrequency() == 0)
+                it.remove();
+        }
+    }
+
+    private int firstSentenceId()
+    {
+        return (sentences.isEmpty() ? nextSentenceId : sentences.peekFirst().id);
+    }
+
+    /**
+     * restarts the internal sentence ids from the oldest sentence in the window
+     */
+    private void renumber()
+    {
+        int firstId = firstSentenceId();
+        for (SentenceRecord record : sentences)
+            record.id -= firstId;
+        for (WindowEntry entry : entries.values())
+            entry.word.shiftSentences(firstId);
+
+        nextSentenceId -= firstId;
+    }
+
+    /**
+     * weight of an occurrence at the given time relative to the reference time
+     */
+    private double decayFactor(long timestamp)
+    {
+        if (decayRate == 0)
+            return 1;
+
+        return Math.exp(decayRate * (timestamp - referenceTime));
+    }
+
+    private void renormalize()
+    {
+        double scale = 1.0 / decayFactor(currentTime);
+        for (WindowEntry entry : entries.values())
+            entry.decayedCount *= scale;
+
+        referenceTime = currentTime;
+    }
+
+    /**
+     * Counters of a stem within the window
+     */
+    private static class WindowEntry
+    {
+        //keeps the postings and the frequency of the stem
+        private Word word;
+        private Map<String, Integer> variants = new LinkedHashMap<String, Integer>(4);
+        private double decayedCount;
+        //occurrences expired but not yet removed from the word
+        private int removed;
+        private boolean dirty;
+
+        WindowEntry(String stem)
+        {
+            word = new Word(null, 0.0);
+            word.stem = stem;
+        }
+
+        void add(String variant, int sentenceId, double increment)
+        {
+            variants.merge(variant, 1, Integer::sum);
+            word.addSentence(sentenceId);
+            decayedCount += increment;
+            dirty = true;
+        }
+
+        void remove(String variant, double decrement)
+        {
+            if (variants.merge(variant, -1, Integer::sum) == 0)
+                variants.remove(variant);
+            decayedCount = Math.max(decayedCount - decrement, 0);
+            removed++;
+            dirty = true;
+        }
+
+        Word snapshotWord(int firstId)
+        {
+            if (dirty)
+                restoreVariant();
+
+            return new Word(word.word, word.stem, word.copySentences(firstId), word.getFrequency());
+        }
+
+        private void restoreVariant()
+        {
+            //the most popular word variant (in case of ties, the one which is in the window for the longest time)
+            String bestVariant = null;
+            int bestCount = 0;
+            for (Map.Entry<String, Integer> variant : variants.entrySet())
+                if (bestVariant == null || variant.getValue() > bestCount)
+                {
+                    bestVariant = variant.getKey();
+                    bestCount = variant.getValue();
+                }
+
+            word.word = bestVariant;
+            dirty = false;
+        }
+    }
+
+    /**
+     * Words of a sentence in the window (needed to expire it)
+     */
+    private static class SentenceRecord
+    {
+        private int id;
+        private long timestamp;
+        private WindowEntry[] entries = new WindowEntry[4];
+        private String[] variants = new String[4];
+        private int size;
+
+        SentenceRecord(int id, long timestamp)
+        {
+            this.id = id;
+            this.timestamp = timestamp;
+        }
+
+        void add(WindowEntry entry, String variant)
+        {
+            if (size == entries.length)
+            {
+                entries = Arrays.copyOf(entries, 2 * size);
+                variants = Arrays.copyOf(variants, 2 * size);
+            }
+
+            entries[size] = entry;
+            variants[size] = variant;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package edu.cloudy.nlp;
+
+import edu.cloudy.nlp.lang.ModelRegistry;
+import opennlp.tools.tokenize.Tokenizer;
+
+/**
+ * Extracts words from sentences:
+ * 1. tokenize
+ * 2. stem
+ * 3. remove stopwords
+ *
+ * The parser uses the tokenizer of the creating thread, so it must not be shared between threads
+ */
+class SentenceParser
+{
+    private ParseOptions parseOptions;
+    private Tokenizer tokenizer;
+    private StopwordSet stopwords;
+    private TokenFilter tokenFilter;
+
+    public SentenceParser(ParseOptions parseOptions)
+    {
+        this.parseOptions = parseOptions;
+        this.tokenizer = ModelRegistry.getTokenizer(parseOptions.getLanguage());
+        this.stopwords = TextUtils.getStopwords(parseOptions);
+        this.tokenFilter = new TokenFilter(parseOptions);
+    }
+
+    private SentenceParser(SentenceParser other)
+    {
+        this.parseOptions = other.parseOptions;
+        this.tokenizer = ModelRegistry.getTokenizer(parseOptions.getLanguage());
+        this.stopwords = other.stopwords;
+        this.tokenFilter = new TokenFilter(parseOptions);
+    }
+
+    /**
+     * Creates a parser for the calling thread (the stopwords are shared)
+     */
+    public SentenceParser copy()
+    {
+        return new SentenceParser(this);
+    }
+
+    public void parse(String sentence, int sentenceId, WordSink sink)
+    {
+        String[] temp = tokenizer.tokenize(sentence);
+        for (int j = 0; j < temp.length; j++)
+        {
+            //lowercase words of length >= 3 starting with letters (and not stopwords)
+            String currentWord = tokenFilter.filter(temp[j]);
+            if (currentWord == null)
+                continue;
+
+            String currentStem = getStemmedWord(currentWord);
+
+            //skip words whose stems are stopwords
+            if (stopwords.isStopword(currentWord, currentStem))
+                continue;
+
+            sink.add(currentStem, temp[j], sentenceId);
+        }
+    }
+
+    /**
+     * Receives the words extracted from sentences
+     */
+    interface WordSink
+    {
+        void add(String stem, String variant, int sentenceId);
+    }
+
+    private String getStemmedWord(String word)
+    {
+        if (!parseOptions.isStemWords())
+            return word;
+
+        return TextUtils.stem(word, parseOptions);
+    }
+}
@@ -0,0 +1,138 @@
+package edu.cloudy.nlp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrent cache (word => stem) used in front of the stemmers:
+ *   - the cache is split into segments guarded by their own locks
+ *   - every segment evicts its least recently used entry when it is full
+ */
+public class StemCache
+{
+    private static final int SEGMENT_COUNT = 16;
+
+    private Segment[] segments;
+    private int capacity;
+
+    private LongAdder hits = new LongAdder();
+    private LongAdder misses = new LongAdder();
+
+    public StemCache(int capacity)
+    {
+        this.capacity = capacity;
+
+        //the capacity is distributed exactly, so a segment may hold nothing
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++)
+            segments[i] = new Segment(capacity / SEGMENT_COUNT + (i < capacity % SEGMENT_COUNT ? 1 : 0));
+    }
+
+    /**
+     * Returns the cached stem of the word or null
+     */
+    public String get(String word)
+    {
+        Segment segment = segmentFor(word);
+        String stem;
+        synchronized (segment)
+        {
+            stem = segment.get(word);
+        }
+
+        if (stem != null)
+            hits.increment();
+        else
+            misses.increment();
+
+        return stem;
+    }
+
+    public void put(String word, String stem)
+    {
+        Segment segment = segmentFor(word);
+        synchronized (segment)
+        {
+            segment.put(word, stem);
+        }
+    }
+
+    public void clear()
+    {
+        for (Segment segment : segments)
+            synchronized (segment)
+            {
+                segment.clear();
+            }
+
+        hits.reset();
+        misses.reset();
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for (Segment segment : segments)
+            synchronized (segment)
+            {
+                size += segment.size();
+            }
+
+        return size;
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    public double getHitRate()
+    {
+        long h = getHitCount();
+        long total = h + getMissCount();
+        return (total > 0 ? (double)h / total : 0.0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("size=%d/%d hits=%d misses=%d", size(), capacity, getHitCount(), getMissCount());
+    }
+
+    private Segment segmentFor(String word)
+    {
+        int h = word.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENT_COUNT - 1)];
+    }
+
+    private static class Segment extends LinkedHashMap<String, String>
+    {
+        private static final long serialVersionUID = -2338129406834405342L;
+
+        private int capacity;
+
+        Segment(int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+        {
+            return size() > capacity;
+        }
+    }
+}
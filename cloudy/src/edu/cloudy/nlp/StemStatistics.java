@@ -0,0 +1,154 @@
+package edu.cloudy.nlp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-stem counters collected while parsing a text:
+ *   - number of occurrences of every variant (original form) of the stem
+ *   - sorted ids of the sentences containing the stem
+ *   - total number of occurrences
+ *
+ * The memory is proportional to the vocabulary (and the postings), not to the length of the text.
+ * The postings are kept directly in the words built for a complete text; when the statistics keep
+ * growing, snapshots of the words are built instead
+ */
+class StemStatistics implements SentenceParser.WordSink
+{
+    private Map<String, StemEntry> entries = new LinkedHashMap<String, StemEntry>();
+
+    @Override
+    public void add(String stem, String variant, int sentenceId)
+    {
+        StemEntry entry = entries.get(stem);
+        if (entry == null)
+        {
+            entry = new StemEntry(stem);
+            entries.put(stem, entry);
+        }
+
+        entry.add(variant, sentenceId);
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Appends the statistics collected for the subsequent sentences
+     * (all sentence ids of other are larger than the ones seen so far)
+     */
+    public void merge(StemStatistics other)
+    {
+        for (StemEntry otherEntry : other.entries.values())
+        {
+            StemEntry entry = entries.get(otherEntry.word.stem);
+            if (entry == null)
+                entries.put(otherEntry.word.stem, otherEntry);
+            else
+                entry.merge(otherEntry);
+        }
+    }
+
+    /**
+     * Trims the postings of the words, when no more sentences are added
+     */
+    public void seal()
+    {
+        for (StemEntry entry : entries.values())
+            entry.word.trimSentences();
+    }
+
+    /**
+     * Creates words (in the order of their first occurrence) using the most popular variant of every stem;
+     * the words keep the postings, so they change if more sentences are added
+     */
+    public List<Word> buildWords()
+    {
+        List<Word> words = new ArrayList<Word>(entries.size());
+        for (StemEntry entry : entries.values())
+            words.add(entry.buildWord());
+
+        return words;
+    }
+
+    /**
+     * Creates new words which are not changed by subsequent sentences;
+     * the postings of stems without new occurrences are shared with the previous snapshot
+     */
+    public List<Word> snapshotWords()
+    {
+        List<Word> words = new ArrayList<Word>(entries.size());
+        for (StemEntry entry : entries.values())
+            words.add(entry.snapshotWord());
+
+        return words;
+    }
+
+    private static class StemEntry
+    {
+        //keeps the postings and the frequency of the stem
+        private Word word;
+        private Map<String, Integer> variants = new LinkedHashMap<String, Integer>(4);
+        //whether the variants changed after the word was built
+        private boolean dirty;
+        //trimmed postings of the last snapshot, null if they changed after it
+        private int[] snapshotSentences;
+
+        StemEntry(String stem)
+        {
+            word = new Word(null, 0.0);
+            word.stem = stem;
+        }
+
+        void add(String variant, int sentenceId)
+        {
+            variants.merge(variant, 1, Integer::sum);
+            //sentences are processed in increasing order
+            word.addSentence(sentenceId);
+            dirty = true;
+        }
+
+        void merge(StemEntry other)
+        {
+            for (Map.Entry<String, Integer> variant : other.variants.entrySet())
+                variants.merge(variant.getKey(), variant.getValue(), Integer::sum);
+            word.addSentences(other.word);
+            dirty = true;
+        }
+
+        Word snapshotWord()
+        {
+            buildWord();
+            if (snapshotSentences == null)
+                snapshotSentences = word.copySentences();
+
+            return new Word(word.word, word.stem, snapshotSentences, word.getFrequency());
+        }
+
+        Word buildWord()
+        {
+            if (!dirty)
+                return word;
+
+            snapshotSentences = null;
+
+            //restore the most popular word variant (the first one seen in case of ties)
+            String bestVariant = null;
+            int bestCount = 0;
+            for (Map.Entry<String, Integer> variant : variants.entrySet())
+                if (bestVariant == null || variant.getValue() > bestCount)
+                {
+                    bestVariant = variant.getKey();
+                    bestCount = variant.getValue();
+                }
+
+            word.word = bestVariant;
+            dirty = false;
+            return word;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package edu.cloudy.nlp;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Immutable set of stopwords with a fast lookup:
+ *   - open addressing with linear probing over a power-of-two table
+ *   - hash codes are kept next to the keys, so a miss rarely touches a string
+ *   - stems of the stopwords are stored in the same table, so that most tokens
+ *     are classified by a single probe of their stem (see isStopword)
+ *
+ * The set is safe to share between threads
+ */
+public class StopwordSet
+{
+    public static final StopwordSet EMPTY = new StopwordSet(Collections.<String> emptyList(), Collections.<String> emptyList());
+
+    private static final byte STOPWORD = 1;
+    private static final byte STEM = 2;
+
+    private String[] keys;
+    private int[] hashes;
+    private byte[] flags;
+    private int mask;
+    private int size;
+
+    /**
+     * @param stopwords the stopwords
+     * @param stems the stems of the stopwords
+     */
+    public StopwordSet(Collection<String> stopwords, Collection<String> stems)
+    {
+        int capacity = 4;
+        //load factor is at most 1/2
+        while (capacity < 2 * (stopwords.size() + stems.size()))
+            capacity <<= 1;
+
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        flags = new byte[capacity];
+        mask = capacity - 1;
+
+        for (String w : stopwords)
+            add(w, STOPWORD);
+        for (String w : stems)
+            add(w, STEM);
+    }
+
+    private void add(String word, byte flag)
+    {
+        int h = word.hashCode();
+        int i = spread(h) & mask;
+        while (keys[i] != null)
+        {
+            if (hashes[i] == h && keys[i].equals(word))
+            {
+                flags[i] |= flag;
+                return;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = word;
+        hashes[i] = h;
+        flags[i] = flag;
+        if ((flag & STOPWORD) != 0)
+            size++;
+    }
+
+    /**
+     * Is the word a stopword
+     */
+    public boolean contains(String word)
+    {
+        return (lookup(word) & STOPWORD) != 0;
+    }
+
+    /**
+     * Is the word stored in the buffer a stopword (no string is created)
+     */
+    public boolean contains(char[] chars, int offset, int length)
+    {
+        //the same hash as String.hashCode
+        int h = 0;
+        for (int k = 0; k < length; k++)
+            h = 31 * h + chars[offset + k];
+
+        int i = spread(h) & mask;
+        String key;
+        while ((key = keys[i]) != null)
+        {
+            if (hashes[i] == h && (flags[i] & STOPWORD) != 0 && equals(key, chars, offset, length))
+                return true;
+
+            i = (i + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Is either the word or its stem a stopword.
+     * The stem of a stopword is always in the table, so a token whose stem
+     * is not found is accepted after a single probe
+     */
+    public boolean isStopword(String word, String stem)
+    {
+        byte f = lookup(stem);
+        if (f == 0)
+            return false;
+
+        if ((f & STOPWORD) != 0)
+            return true;
+
+        //the stem coincides with the stem of a stopword; check the word itself
+        return !word.equals(stem) && contains(word);
+    }
+
+    /**
+     * number of stopwords (stems are not counted)
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    private byte lookup(String word)
+    {
+        int h = word.hashCode();
+        int i = spread(h) & mask;
+        String key;
+        while ((key = keys[i]) != null)
+        {
+            if (hashes[i] == h && key.equals(word))
+                return flags[i];
+
+            i = (i + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    private static boolean equals(String key, char[] chars, int offset, int length)
+    {
+        if (key.length() != length)
+            return false;
+
+        for (int k = 0; k < length; k++)
+            if (key.charAt(k) != chars[offset + k])
+                return false;
+
+        return true;
+    }
+
+    private static int spread(int h)
+    {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -3,13 +3,18 @@ package edu.cloudy.nlp;
 import edu.cloudy.nlp.stemming.PorterStemmer;
 import edu.cloudy.nlp.stemming.snowball.SnowballStemmer;
 import edu.cloudy.nlp.stemming.snowball.ext.daStemmer;
+import edu.cloudy.utils.CommonUtils;
 
 import org.lemurproject.kstem.KrovetzStemmer;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author spupyrev
@@ -56,23 +61,107 @@ public class TextUtils
         return result;
     }
 
-    private static Map<String, SnowballStemmer> stemmers = new HashMap();
+    //stemmers keep a state, so every thread gets its own instances
+    private static ThreadLocal<ThreadStemmers> stemmers = ThreadLocal.withInitial(ThreadStemmers::new);
+
+    private static final int DEFAULT_STEM_CACHE_SIZE = 1 << 16;
+    //languageId => cached stems
+    private static Map<String, StemCache> stemCaches = new ConcurrentHashMap();
+    private static volatile int stemCacheSize = DEFAULT_STEM_CACHE_SIZE;
 
     public static String stem(String word, ParseOptions parseOptions)
     {
         String languageId = parseOptions.getLanguage().getId();
+        if (stemCacheSize <= 0)
+            return computeStem(word, languageId);
+
+        StemCache cache = getStemCache(languageId);
+        String result = cache.get(word);
+        if (result == null)
+        {
+            result = computeStem(word, languageId);
+            cache.put(word, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Cache of stems for the given language (created on demand)
+     */
+    public static StemCache getStemCache(String languageId)
+    {
+        return stemCaches.computeIfAbsent(languageId, id -> new StemCache(stemCacheSize));
+    }
+
+    /**
+     * Sets the maximum number of cached stems per language (0 disables caching);
+     * existing caches are dropped
+     */
+    public static void setStemCacheSize(int size)
+    {
+        stemCacheSize = size;
+        stemCaches.clear();
+    }
+
+    public static int getStemCacheSize()
+    {
+        return stemCacheSize;
+    }
+
+    //languageId (and stemming mode) => stopwords
+    private static Map<String, StopwordSet> stopwordSets = new ConcurrentHashMap();
+
+    /**
+     * Stopwords of the language; loaded once and shared between threads.
+     * If words are stemmed, the set also keeps the stems of the stopwords
+     */
+    public static StopwordSet getStopwords(ParseOptions parseOptions)
+    {
+        if (!parseOptions.isRemoveStopwords())
+            return StopwordSet.EMPTY;
+
+        String key = parseOptions.getLanguage().getId() + (parseOptions.isStemWords() ? ":stem" : "");
+        return stopwordSets.computeIfAbsent(key, k -> buildStopwords(parseOptions));
+    }
+
+    private static StopwordSet buildStopwords(ParseOptions parseOptions)
+    {
+        Set<String> stopWords = new HashSet<String>();
+        Set<String> stems = new HashSet<String>();
+
+        try
+        {
+            Scanner br = new Scanner(CommonUtils.getResourceAsStream(parseOptions.getLanguage().getStopwordsFile()), "UTF-8");
+            while (br.hasNext())
+            {
+                String token = br.next();
+                String word = token.toLowerCase().trim();
+                stopWords.add(word);
+                if (parseOptions.isStemWords())
+                    stems.add(stem(word, parseOptions));
+            }
+            br.close();
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new RuntimeException(e);
+        }
 
-        tryToCreateStemmer(languageId);
-        SnowballStemmer stemmer = stemmers.get(languageId);
+        return new StopwordSet(stopWords, stems);
+    }
+
+    private static String computeStem(String word, String languageId)
+    {
+        ThreadStemmers threadStemmers = stemmers.get();
+
+        SnowballStemmer stemmer = threadStemmers.getSnowballStemmer(languageId);
 
         if (stemmer == null)
         {
             //LovinsStemmer stemmer = new LovinsStemmer();
-            PorterStemmer enStemmer = new PorterStemmer();
-            KrovetzStemmer enStemmer2 = new KrovetzStemmer();
-
-            String prestemmed = enStemmer2.stem(word);
-            return enStemmer.stem(prestemmed);
+            String prestemmed = threadStemmers.krovetzStemmer.stem(word);
+            return threadStemmers.porterStemmer.stem(prestemmed);
         }
         else
         {
@@ -83,18 +172,34 @@ public class TextUtils
         }
     }
 
-    private static void tryToCreateStemmer(String languageId)
+    /**
+     * Stemmers owned by a single thread; created once and reused for every word
+     */
+    private static class ThreadStemmers
     {
-        if (!stemmers.containsKey(languageId))
+        private Map<String, SnowballStemmer> snowballStemmers = new HashMap();
+        //english fallback
+        private PorterStemmer porterStemmer = new PorterStemmer();
+        private KrovetzStemmer krovetzStemmer = new KrovetzStemmer();
+
+        SnowballStemmer getSnowballStemmer(String languageId)
+        {
+            if (!snowballStemmers.containsKey(languageId))
+                snowballStemmers.put(languageId, createStemmer(languageId));
+
+            return snowballStemmers.get(languageId);
+        }
+
+        private static SnowballStemmer createStemmer(String languageId)
         {
             try
             {
                 Class stemClass = Class.forName(daStemmer.class.getPackage().getName() + "." + languageId + "Stemmer");
-                stemmers.put(languageId, (SnowballStemmer)stemClass.newInstance());
+                return (SnowballStemmer)stemClass.newInstance();
             }
             catch (ClassNotFoundException e)
             {
-                stemmers.put(languageId, null);
+                return null;
             }
             catch (InstantiationException e)
             {
@@ -0,0 +1,120 @@
+package edu.cloudy.nlp;
+
+/**
+ * Turns raw tokens into lowercase words or rejects them:
+ *   - short tokens and tokens not starting with a letter are rejected first
+ *   - the remaining ones are classified without creating a string
+ *   - a token which is lowercase already is returned as is, others
+ *     are lowercased via a reusable buffer
+ *   - stopwords are rejected before a lowercase string is created
+ *
+ * The filter keeps a buffer, so it must not be shared between threads
+ */
+public class TokenFilter
+{
+    private int minWordLength;
+    private boolean removeNumbers;
+    private StopwordSet stopwords;
+
+    private char[] buffer = new char[32];
+
+    public TokenFilter(ParseOptions parseOptions)
+    {
+        this.minWordLength = parseOptions.getMinWordLength();
+        this.removeNumbers = parseOptions.isRemoveNumbers();
+        this.stopwords = TextUtils.getStopwords(parseOptions);
+    }
+
+    /**
+     * Returns the lowercase word or null if the token is not a word (or it is a stopword)
+     */
+    public String filter(String token)
+    {
+        int length = token.length();
+        //words of length >= 3
+        if (length < minWordLength)
+            return null;
+
+        //only consider words starting with letters
+        char firstCharacter = token.charAt(0);
+        if (!Character.isLetter(firstCharacter) && firstCharacter != '#')
+            return null;
+
+        //classify the characters and find the first uppercase one
+        int firstUpper = -1;
+        for (int i = 0; i < length; i++)
+        {
+            char c = token.charAt(i);
+            if (i > 0 && removeNumbers && !isLetterOrHyphen(c))
+                return null;
+
+            if (firstUpper == -1 && isUpperCase(c))
+                firstUpper = i;
+        }
+
+        if (firstUpper == -1)
+            return (stopwords.contains(token) ? null : token);
+
+        return toLowerCase(token, firstUpper);
+    }
+
+    private String toLowerCase(String token, int firstUpper)
+    {
+        int length = token.length();
+        if (buffer.length < length)
+            buffer = new char[Math.max(length, 2 * buffer.length)];
+
+        token.getChars(0, firstUpper, buffer, 0);
+        for (int i = firstUpper; i < length; i++)
+        {
+            char c = token.charAt(i);
+            if (c >= 0x80)
+            {
+                //some characters are lowercased depending on the context (or to several characters)
+                return filterLowercase(token.toLowerCase());
+            }
+
+            buffer[i] = (c >= 'A' && c <= 'Z' ? (char)(c + ('a' - 'A')) : c);
+        }
+
+        if (stopwords.contains(buffer, 0, length))
+            return null;
+
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * the slow path: the checks are repeated for the lowercase string
+     */
+    private String filterLowercase(String word)
+    {
+        if (word.length() < minWordLength)
+            return null;
+
+        char firstCharacter = word.charAt(0);
+        if (!Character.isLetter(firstCharacter) && firstCharacter != '#')
+            return null;
+
+        for (int i = 1; i < word.length(); i++)
+            if (removeNumbers && !isLetterOrHyphen(word.charAt(i)))
+                return null;
+
+        return (stopwords.contains(word) ? null : word);
+    }
+
+    private static boolean isLetterOrHyphen(char c)
+    {
+        if (c < 0x80)
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-';
+
+        return Character.isLetter(c);
+    }
+
+    private static boolean isUpperCase(char c)
+    {
+        if (c < 0x80)
+            return (c >= 'A' && c <= 'Z');
+
+        return Character.toLowerCase(c) != c;
+    }
+}
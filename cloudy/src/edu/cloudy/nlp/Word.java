@@ -1,16 +1,21 @@
 package edu.cloudy.nlp;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 public class Word implements Comparable<Word>, Cloneable
 {
+    //lists which are this much shorter are intersected by the galloping search
+    private static final int GALLOP_RATIO = 16;
+
     public String word;
     public String stem;
     public double weight;
     public double sentimentValue;
 
-    private List<Integer> sentences;
+    //sorted distinct ids of the sentences containing the word
+    private int[] sentences;
+    private int sentenceCount;
+    private int frequency;
 
     public Word(String word, double weight)
     {
@@ -18,17 +23,230 @@ public class Word implements Comparable<Word>, Cloneable
         this.stem = null;
         this.weight = weight;
         this.sentimentValue = 0;
-        this.sentences = new ArrayList<Integer>();
+        this.sentences = new int[2];
+        this.sentenceCount = 0;
+    }
+
+    /**
+     * word with the given postings, which are used as they are: a trimmed array may be shared
+     * between words, since adding a sentence to a full array reallocates it
+     */
+    Word(String word, String stem, int[] sentences, int frequency)
+    {
+        this(word, 0.0);
+        this.stem = stem;
+        this.sentences = sentences;
+        this.sentenceCount = sentences.length;
+        this.frequency = frequency;
     }
 
+    /**
+     * registers an occurrence of the word in the given sentence;
+     * sentences are added in increasing order and every id is kept once
+     */
     public void addSentence(int id)
     {
-        sentences.add(id);
+        frequency++;
+
+        if (sentenceCount > 0 && sentences[sentenceCount - 1] == id)
+            return;
+
+        assert (sentenceCount == 0 || sentences[sentenceCount - 1] < id);
+        if (sentenceCount == sentences.length)
+            sentences = Arrays.copyOf(sentences, 2 * sentenceCount);
+        sentences[sentenceCount++] = id;
+    }
+
+    /**
+     * sorted ids of the sentences containing the word (the array must not be modified);
+     * the postings are returned directly once they are trimmed, and copied while they may grow
+     */
+    public int[] getSentences()
+    {
+        int[] s = sentences;
+        if (s.length != sentenceCount)
+            return Arrays.copyOf(s, sentenceCount);
+
+        return s;
+    }
+
+    /**
+     * trimmed copy of the postings
+     */
+    int[] copySentences()
+    {
+        return Arrays.copyOf(sentences, sentenceCount);
+    }
+
+    /**
+     * trimmed copy of the postings with the ids counted from the given one
+     */
+    int[] copySentences(int firstId)
+    {
+        int[] res = new int[sentenceCount];
+        for (int i = 0; i < sentenceCount; i++)
+            res[i] = sentences[i] - firstId;
+
+        return res;
+    }
+
+    /**
+     * renumbers the postings (in place) so that the ids are counted from the given one
+     */
+    void shiftSentences(int firstId)
+    {
+        for (int i = 0; i < sentenceCount; i++)
+            sentences[i] -= firstId;
+    }
+
+    /**
+     * releases the spare capacity of the postings, when no more sentences are added
+     */
+    void trimSentences()
+    {
+        if (sentences.length != sentenceCount)
+            sentences = Arrays.copyOf(sentences, sentenceCount);
+    }
+
+    /**
+     * number of (distinct) sentences containing the word
+     */
+    public int getSentenceCount()
+    {
+        return sentenceCount;
+    }
+
+    /**
+     * number of sentences containing both words
+     */
+    public int intersectionSize(Word other)
+    {
+        int[] a = sentences;
+        int[] b = other.sentences;
+        int na = sentenceCount;
+        int nb = other.sentenceCount;
+        if (na > nb)
+        {
+            int[] t = a;
+            a = b;
+            b = t;
+            na = other.sentenceCount;
+            nb = sentenceCount;
+        }
+
+        if (na == 0 || a[na - 1] < b[0] || b[nb - 1] < a[0])
+            return 0;
+
+        //galloping search of the short list in the long one
+        if ((long)na * GALLOP_RATIO < nb)
+            return gallopingIntersectionSize(a, na, b, nb);
+
+        //linear merge otherwise
+        int res = 0;
+        int i = 0, j = 0;
+        while (i < na && j < nb)
+        {
+            if (a[i] < b[j])
+                i++;
+            else if (a[i] > b[j])
+                j++;
+            else
+            {
+                res++;
+                i++;
+                j++;
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * number of sentences containing at least one of the words
+     */
+    public int unionSize(Word other)
+    {
+        return sentenceCount + other.sentenceCount - intersectionSize(other);
+    }
+
+    private static int gallopingIntersectionSize(int[] a, int na, int[] b, int nb)
+    {
+        int res = 0;
+        int lo = 0;
+        for (int i = 0; i < na && lo < nb; i++)
+        {
+            int key = a[i];
+
+            //find a range [lo, hi) containing the key
+            int step = 1;
+            int hi = lo;
+            while (hi < nb && b[hi] < key)
+            {
+                lo = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+
+            int pos = Arrays.binarySearch(b, lo, Math.min(hi + 1, nb), key);
+            if (pos >= 0)
+            {
+                res++;
+                lo = pos + 1;
+            }
+            else
+                lo = -pos - 1;
+        }
+
+        return res;
+    }
+
+    /**
+     * appends the occurrences of the other word; all its sentences follow the ones of this word
+     */
+    void addSentences(Word other)
+    {
+        frequency += other.frequency;
+
+        int from = 0;
+        if (sentenceCount > 0 && other.sentenceCount > 0 && sentences[sentenceCount - 1] == other.sentences[0])
+            from = 1;
+
+        int count = other.sentenceCount - from;
+        if (count <= 0)
+            return;
+
+        assert (sentenceCount == 0 || sentences[sentenceCount - 1] < other.sentences[from]);
+        if (sentenceCount + count > sentences.length)
+            sentences = Arrays.copyOf(sentences, Math.max(sentenceCount + count, 2 * sentenceCount));
+        System.arraycopy(other.sentences, from, sentences, sentenceCount, count);
+        sentenceCount += count;
+    }
+
+    /**
+     * removes the given number of occurrences located in the sentences preceding the given one
+     */
+    void removeSentencesBefore(int id, int occurrences)
+    {
+        frequency -= occurrences;
+        assert (frequency >= 0);
+
+        int from = Arrays.binarySearch(sentences, 0, sentenceCount, id);
+        if (from < 0)
+            from = -from - 1;
+
+        if (from == 0)
+            return;
+
+        System.arraycopy(sentences, from, sentences, 0, sentenceCount - from);
+        sentenceCount -= from;
     }
 
-    public List<Integer> getSentences()
+    /**
+     * number of occurrences of the word in the text
+     */
+    public int getFrequency()
     {
-        return sentences;
+        return frequency;
     }
 
     @Override
@@ -74,7 +292,10 @@ public class Word implements Comparable<Word>, Cloneable
     {
         try
         {
-            return super.clone();
+            Word res = (Word)super.clone();
+            //the clone must not share the growing postings
+            res.sentences = Arrays.copyOf(sentences, sentenceCount);
+            return res;
         }
         catch (Exception e)
         {
@@ -0,0 +1,142 @@
+package edu.cloudy.nlp.lang;
+
+import edu.cloudy.utils.CommonUtils;
+import opennlp.tools.sentdetect.SentenceDetectorME;
+import opennlp.tools.sentdetect.SentenceModel;
+import opennlp.tools.tokenize.Tokenizer;
+import opennlp.tools.tokenize.TokenizerME;
+import opennlp.tools.tokenize.TokenizerModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps OpenNLP models loaded once per JVM:
+ *   - models are immutable and shared between all threads
+ *   - TokenizerME/SentenceDetectorME are not thread-safe, so every thread
+ *     gets its own instance (created lazily on top of the shared model)
+ *
+ * Several languages share the same model files, so everything is keyed by the file name
+ */
+public class ModelRegistry
+{
+    private static Map<String, TokenizerModel> tokenizerModels = new ConcurrentHashMap<String, TokenizerModel>();
+    private static Map<String, SentenceModel> sentenceModels = new ConcurrentHashMap<String, SentenceModel>();
+
+    private static ThreadLocal<Map<String, Tokenizer>> tokenizers = ThreadLocal.withInitial(HashMap::new);
+    private static ThreadLocal<Map<String, SentenceDetectorME>> sentenceDetectors = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Tokenizer confined to the calling thread
+     */
+    public static Tokenizer getTokenizer(Language language)
+    {
+        String file = language.getTokenFile();
+        Map<String, Tokenizer> cache = tokenizers.get();
+
+        Tokenizer tokenizer = cache.get(file);
+        if (tokenizer == null)
+        {
+            tokenizer = new TokenizerME(getTokenizerModel(file));
+            cache.put(file, tokenizer);
+        }
+
+        return tokenizer;
+    }
+
+    /**
+     * Sentence detector confined to the calling thread
+     */
+    public static SentenceDetectorME getSentenceDetector(Language language)
+    {
+        String file = language.getSentFile();
+        Map<String, SentenceDetectorME> cache = sentenceDetectors.get();
+
+        SentenceDetectorME detector = cache.get(file);
+        if (detector == null)
+        {
+            detector = new SentenceDetectorME(getSentenceModel(file));
+            cache.put(file, detector);
+        }
+
+        return detector;
+    }
+
+    /**
+     * Loads the models for the given languages (so that the first request does not pay for it)
+     */
+    public static void warmUp(String... languageIds)
+    {
+        for (String id : languageIds)
+        {
+            Language language = LanguageRegistry.getById(id);
+            if (language == null)
+                throw new IllegalArgumentException("unknown language: " + id);
+
+            getTokenizerModel(language.getTokenFile());
+            getSentenceModel(language.getSentFile());
+        }
+    }
+
+    private static TokenizerModel getTokenizerModel(String file)
+    {
+        return tokenizerModels.computeIfAbsent(file, f -> {
+            InputStream modelIn = openModel(f);
+            try
+            {
+                return new TokenizerModel(modelIn);
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+            finally
+            {
+                close(modelIn);
+            }
+        });
+    }
+
+    private static SentenceModel getSentenceModel(String file)
+    {
+        return sentenceModels.computeIfAbsent(file, f -> {
+            InputStream modelIn = openModel(f);
+            try
+            {
+                return new SentenceModel(modelIn);
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+            finally
+            {
+                close(modelIn);
+            }
+        });
+    }
+
+    private static InputStream openModel(String file)
+    {
+        InputStream modelIn = CommonUtils.getResourceAsStream(file);
+        if (modelIn == null)
+            throw new RuntimeException("model not found: " + file);
+
+        return modelIn;
+    }
+
+    private static void close(InputStream modelIn)
+    {
+        try
+        {
+            modelIn.close();
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package edu.cloudy.nlp.ranking;
+
+import edu.cloudy.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Read-only table of document frequencies of terms in a corpus;
+ * the inverse document frequency of a term is log(N / df), where N is the number of documents.
+ * A table is either kept in sorted arrays or mapped from a binary file (see save) without being read;
+ * the binary layout is:
+ *   - magic, number of terms, number of documents (3 ints), revision (a long)
+ *   - document frequencies (a double per term)
+ *   - offsets of the keys in the key area (an int per term, plus the end offset)
+ *   - keys (UTF-8 bytes, sorted lexicographically as unsigned bytes)
+ */
+public abstract class IDFTable
+{
+    private static final int MAGIC = 0x49444632;
+    private static final int HEADER_SIZE = 20;
+
+    //the Brown corpus consists of 500 documents
+    private static final int BROWN_DOCUMENT_COUNT = 500;
+    private static final String BROWN_RESOURCE = "corpus/brown.bin";
+    //a binary file with the Brown table which is mapped instead of the resource
+    public static final String BROWN_TABLE_PROPERTY = "cloudy.idf.brown";
+
+    private static class BrownHolder
+    {
+        static final IDFTable TABLE = loadBrown();
+    }
+
+    /**
+     * The table of the Brown corpus, loaded once
+     */
+    public static IDFTable getBrown()
+    {
+        return BrownHolder.TABLE;
+    }
+
+    public abstract int size();
+
+    public abstract int getDocumentCount();
+
+    /**
+     * A number stored with the table by its owner (e.g. the last processed document id
+     * or the modification time of the newest indexed file), 0 by default
+     */
+    public abstract long getRevision();
+
+    /**
+     * Number of documents containing the term, or 0 for unknown terms
+     */
+    public abstract double getDocumentFrequency(String term);
+
+    /**
+     * log(N / df) or the default value for unknown terms
+     */
+    public double getIDF(String term, double defaultValue)
+    {
+        double df = getDocumentFrequency(term);
+        if (df == 0)
+            return defaultValue;
+
+        return Math.log(getDocumentCount() / df);
+    }
+
+    public abstract String getTerm(int index);
+
+    protected abstract double getDocumentFrequency(int index);
+
+    /**
+     * Writes the table in the binary format; the file is replaced at once, so that a failed write
+     * keeps the previous version and processes which have mapped it keep reading it
+     */
+    public void save(Path file) throws IOException
+    {
+        int n = size();
+        byte[][] keys = new byte[n][];
+        long keyLength = 0;
+        for (int i = 0; i < n; i++)
+        {
+            keys[i] = getTerm(i).getBytes(StandardCharsets.UTF_8);
+            keyLength += keys[i].length;
+        }
+
+        //the order of the binary search over mapped keys
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> compareBytes(keys[a], keys[b]));
+
+        long length = HEADER_SIZE + 8L * n + 4L * (n + 1) + keyLength;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try (RandomAccessFile raf = new RandomAccessFile(tmp.toFile(), "rw"); FileChannel channel = raf.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(MAGIC);
+            buffer.putInt(n);
+            buffer.putInt(getDocumentCount());
+            buffer.putLong(getRevision());
+
+            for (int i = 0; i < n; i++)
+                buffer.putDouble(getDocumentFrequency(order[i]));
+
+            int offset = 0;
+            for (int i = 0; i < n; i++)
+            {
+                buffer.putInt(offset);
+                offset += keys[order[i]].length;
+            }
+            buffer.putInt(offset);
+
+            for (int i = 0; i < n; i++)
+                buffer.put(keys[order[i]]);
+
+            buffer.force();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Table of the given document frequencies (copied into sorted arrays)
+     */
+    public static IDFTable fromFrequencies(Map<String, Double> frequencies, int documentCount)
+    {
+        return fromFrequencies(frequencies, documentCount, 0);
+    }
+
+    public static IDFTable fromFrequencies(Map<String, Double> frequencies, int documentCount, long revision)
+    {
+        String[] terms = frequencies.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+
+        double[] df = new double[terms.length];
+        for (int i = 0; i < terms.length; i++)
+            df[i] = frequencies.get(terms[i]);
+
+        return new ArrayTable(terms, df, documentCount, revision);
+    }
+
+    /**
+     * Maps a table written by save
+     */
+    public static IDFTable map(Path file) throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r"); FileChannel channel = raf.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+                throw new IOException("'" + file + "' is not an IDF table");
+
+            return new MappedTable(buffer);
+        }
+    }
+
+    /**
+     * Reads document frequencies of terms serialized as a HashMap<String, Double>
+     */
+    @SuppressWarnings("unchecked")
+    public static IDFTable readSerialized(String resource, int documentCount)
+    {
+        try (ObjectInputStream ois = new ObjectInputStream(CommonUtils.getResourceAsStream(resource)))
+        {
+            return fromFrequencies((Map<String, Double>)ois.readObject(), documentCount);
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("cannot read IDF table '" + resource + "'", e);
+        }
+    }
+
+    private static IDFTable loadBrown()
+    {
+        String file = System.getProperty(BROWN_TABLE_PROPERTY);
+        if (file == null)
+            return readSerialized(BROWN_RESOURCE, BROWN_DOCUMENT_COUNT);
+
+        try
+        {
+            return map(Paths.get(file));
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int compareBytes(byte[] a, byte[] b)
+    {
+        return compareBytes(ByteBuffer.wrap(a), 0, a.length, b);
+    }
+
+    /**
+     * Compares length bytes of the buffer starting at the offset with the key (as unsigned bytes)
+     */
+    private static int compareBytes(ByteBuffer buffer, int offset, int length, byte[] key)
+    {
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++)
+        {
+            int c = Integer.compare(buffer.get(offset + i) & 0xff, key[i] & 0xff);
+            if (c != 0)
+                return c;
+        }
+
+        return Integer.compare(length, key.length);
+    }
+
+    private static class ArrayTable extends IDFTable
+    {
+        private String[] terms;
+        private double[] df;
+        private int documentCount;
+        private long revision;
+
+        ArrayTable(String[] terms, double[] df, int documentCount, long revision)
+        {
+            this.terms = terms;
+            this.df = df;
+            this.documentCount = documentCount;
+            this.revision = revision;
+        }
+
+        @Override
+        public int size()
+        {
+            return terms.length;
+        }
+
+        @Override
+        public int getDocumentCount()
+        {
+            return documentCount;
+        }
+
+        @Override
+        public long getRevision()
+        {
+            return revision;
+        }
+
+        @Override
+        public double getDocumentFrequency(String term)
+        {
+            int index = Arrays.binarySearch(terms, term);
+            return (index >= 0 ? df[index] : 0);
+        }
+
+        @Override
+        public String getTerm(int index)
+        {
+            return terms[index];
+        }
+
+        @Override
+        protected double getDocumentFrequency(int index)
+        {
+            return df[index];
+        }
+    }
+
+    private static class MappedTable extends IDFTable
+    {
+        private ByteBuffer buffer;
+        private int size;
+        private int documentCount;
+        private long revision;
+        private int offsetsStart;
+        private int keysStart;
+
+        MappedTable(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+            size = buffer.getInt(4);
+            documentCount = buffer.getInt(8);
+            revision = buffer.getLong(12);
+            offsetsStart = HEADER_SIZE + 8 * size;
+            keysStart = offsetsStart + 4 * (size + 1);
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public int getDocumentCount()
+        {
+            return documentCount;
+        }
+
+        @Override
+        public long getRevision()
+        {
+            return revision;
+        }
+
+        @Override
+        public double getDocumentFrequency(String term)
+        {
+            byte[] key = term.getBytes(StandardCharsets.UTF_8);
+
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi)
+            {
+                int mid = (lo + hi) >>> 1;
+                int start = keyOffset(mid);
+                int c = compareBytes(buffer, keysStart + start, keyOffset(mid + 1) - start, key);
+                if (c < 0)
+                    lo = mid + 1;
+                else if (c > 0)
+                    hi = mid - 1;
+                else
+                    return getDocumentFrequency(mid);
+            }
+
+            return 0;
+        }
+
+        @Override
+        public String getTerm(int index)
+        {
+            int start = keyOffset(index);
+            byte[] key = new byte[keyOffset(index + 1) - start];
+            for (int i = 0; i < key.length; i++)
+                key[i] = buffer.get(keysStart + start + i);
+
+            return new String(key, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected double getDocumentFrequency(int index)
+        {
+            return buffer.getDouble(HEADER_SIZE + 8 * index);
+        }
+
+        private int keyOffset(int index)
+        {
+            return buffer.getInt(offsetsStart + 4 * index);
+        }
+    }
+}
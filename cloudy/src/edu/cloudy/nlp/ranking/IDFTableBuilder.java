@@ -0,0 +1,148 @@
+package edu.cloudy.nlp.ranking;
+
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.SWCDocument;
+import edu.cloudy.nlp.Word;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Collects document frequencies of (stemmed) words of a corpus for an IDF table:
+ *   - documents are parsed with SWCDocument and every distinct stem of a document is counted once
+ *   - documents may be added concurrently (streams of documents are processed in parallel)
+ *   - a builder may start from an existing table, so that the table is updated with new documents
+ */
+public class IDFTableBuilder
+{
+    private ParseOptions parseOptions;
+
+    private Map<String, Double> frequencies = new ConcurrentHashMap<String, Double>();
+    private AtomicInteger documentCount = new AtomicInteger();
+    private long revision;
+
+    public IDFTableBuilder(ParseOptions parseOptions)
+    {
+        this.parseOptions = parseOptions;
+    }
+
+    /**
+     * Continues counting the documents of the table
+     */
+    public IDFTableBuilder(IDFTable table, ParseOptions parseOptions)
+    {
+        this(parseOptions);
+
+        for (int i = 0; i < table.size(); i++)
+            frequencies.put(table.getTerm(i), table.getDocumentFrequency(i));
+        documentCount.set(table.getDocumentCount());
+        revision = table.getRevision();
+    }
+
+    public int getDocumentCount()
+    {
+        return documentCount.get();
+    }
+
+    /**
+     * The number saved with the table (see IDFTable.getRevision)
+     */
+    public long getRevision()
+    {
+        return revision;
+    }
+
+    public void setRevision(long revision)
+    {
+        this.revision = revision;
+    }
+
+    public void addDocument(String text)
+    {
+        SWCDocument document = new SWCDocument(text);
+        document.parse(parseOptions);
+
+        //words of a parsed document have distinct stems
+        for (Word w : document.getWords())
+            frequencies.merge(w.stem, 1.0, Double::sum);
+        documentCount.incrementAndGet();
+    }
+
+    /**
+     * Adds the documents in parallel
+     */
+    public void addDocuments(Stream<String> texts)
+    {
+        texts.parallel().forEach(this::addDocument);
+    }
+
+    /**
+     * Adds every regular file of the directory (recursively) modified after the revision as a document;
+     * the revision becomes the modification time (in milliseconds) of the newest file, so that indexing
+     * a grown directory again adds only the files which appeared (or were modified) since then
+     */
+    public void addDirectory(Path directory) throws IOException
+    {
+        long indexedUntil = revision;
+        Map<Path, Long> files = new LinkedHashMap<Path, Long>();
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            paths.filter(Files::isRegularFile).forEach(file -> files.put(file, lastModified(file)));
+            files.values().removeIf(time -> time <= indexedUntil);
+
+            addDocuments(files.keySet().stream().map(IDFTableBuilder::readFile));
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+
+        for (long time : files.values())
+            revision = Math.max(revision, time);
+    }
+
+    public IDFTable build()
+    {
+        return IDFTable.fromFrequencies(frequencies, documentCount.get(), revision);
+    }
+
+    /**
+     * Writes the table in the binary format (see IDFTable.save)
+     */
+    public void save(Path file) throws IOException
+    {
+        build().save(file);
+    }
+
+    private static long lastModified(Path file)
+    {
+        try
+        {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readFile(Path file)
+    {
+        try
+        {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
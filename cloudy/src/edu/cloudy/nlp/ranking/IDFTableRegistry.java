@@ -0,0 +1,66 @@
+package edu.cloudy.nlp.ranking;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named IDF tables used by TFIDFRankingAlgo:
+ *   - "brown" is the table of the Brown corpus
+ *   - a table can be registered explicitly or by the system property cloudy.idf.<name>,
+ *     which holds the path to the table in the binary format
+ */
+public class IDFTableRegistry
+{
+    public static final String BROWN = "brown";
+
+    private static final String PROPERTY_PREFIX = "cloudy.idf.";
+
+    private static Map<String, IDFTable> tables = new ConcurrentHashMap<String, IDFTable>();
+
+    public static void register(String name, IDFTable table)
+    {
+        tables.put(name, table);
+    }
+
+    /**
+     * Maps the table from the file
+     */
+    public static void register(String name, Path file)
+    {
+        try
+        {
+            register(name, IDFTable.map(file));
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static IDFTable getByName(String name)
+    {
+        return tables.computeIfAbsent(name, IDFTableRegistry::load);
+    }
+
+    private static IDFTable load(String name)
+    {
+        if (BROWN.equals(name))
+            return IDFTable.getBrown();
+
+        String file = System.getProperty(PROPERTY_PREFIX + name);
+        if (file == null)
+            throw new RuntimeException("unknown IDF table '" + name + "'");
+
+        try
+        {
+            return IDFTable.map(Paths.get(file));
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
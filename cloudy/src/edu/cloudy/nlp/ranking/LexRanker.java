@@ -1,6 +1,7 @@
 package edu.cloudy.nlp.ranking;
 
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -13,6 +14,10 @@ import java.util.ArrayList;
  */
 public class LexRanker {
 
+    private static final double DAMPING = 0.85;
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_ITERATIONS = 1000;
+
     /**
      * Runs the LexRank algorithm over a set of data. The data must have a
      * similarity function, and it is assumed that the similarity function
@@ -36,30 +41,25 @@ public class LexRanker {
         if (data.size() == 0) {
             return results;
         }
-        double[][] similarities = similarityMatrix(data);
-        double[][] transitionProbabilities =
-            transitionProbabilities(similarities,
+        TransitionMatrix transitionProbabilities =
+            transitionProbabilities(data,
                                     similarityThreshold,
                                     continuous);
 
         // Build the neighbor graph for the results.
         for (int i = 0; i < data.size(); ++i) {
-            for (int j = 0; j < data.size(); ++j) {
-                if (transitionProbabilities[i][j] > 0) {
-                    List<T> neighborList = results.neighbors.get(data.get(i));
-                    if (neighborList == null) {
-                        neighborList = new ArrayList<T>();
-                    }
-                    neighborList.add(data.get(j));
-                    results.neighbors.put(data.get(i), neighborList);
-                }
+            int[] neighbors = transitionProbabilities.neighbors(i);
+            if (neighbors.length == 0) {
+                continue;
+            }
+            List<T> neighborList = new ArrayList<T>(neighbors.length);
+            for (int j : neighbors) {
+                neighborList.add(data.get(j));
             }
+            results.neighbors.put(data.get(i), neighborList);
         }
 
-        double[] rankings = powerIteration(transitionProbabilities,
-                                           data.size(),
-                                           0.001,
-                                           1000);
+        double[] rankings = rank(transitionProbabilities, false);
 
         // Now that we have the LexRank scores, arrange them for the results.
         List<RankPair<T>> tempList = new ArrayList<RankPair<T>>();
@@ -75,6 +75,20 @@ public class LexRanker {
         return results;
     }
 
+    /**
+     * Computes the LexRank scores of the items of a transition matrix.
+     *
+     * @param parallel whether the matrix-vector products may use all
+     * available cores.
+     */
+    static double[] rank(TransitionMatrix transitionProbabilities,
+                         boolean parallel) {
+        return powerIteration(transitionProbabilities,
+                              EPSILON,
+                              MAX_ITERATIONS,
+                              parallel);
+    }
+
     /** Internal class used for sorting data by LexRank score.*/
     private static class RankPair<T> implements Comparable<RankPair<T>> {
         T data;
@@ -96,140 +110,72 @@ public class LexRanker {
     }
 
     /**
-     * Computes a similarity matrix given a set of data.
-     * Assumes that the similarity function is symmetric.
-     */
-    private static <T extends Similar<T>> double[][]
-                              similarityMatrix(List<T> data) {
-        double[][] results = new double[data.size()][data.size()];
-        for (int i = 0; i < data.size(); ++i) {
-            for (int j = 0; j <= i; ++j) {
-                results[i][j] = results[j][i] =
-                    data.get(i).similarity(data.get(j));
-            }
-        }
-        return results;
-    }
-
-    /**
-     * Given a similarity matrix, computes the transition probability for a
+     * Given a set of data, computes the transition probability for a
      * random walker on a graph to go from any one node to any other node,
      * where all edges come from sufficiently high similarities between nodes.
+     * Assumes that the similarity function is symmetric, so every pair is
+     * evaluated once.
      */
-    private static double[][]
-        transitionProbabilities(double[][] similarities,
+    private static <T extends Similar<T>> TransitionMatrix
+        transitionProbabilities(List<T> data,
                                 double similarityThreshold,
                                 boolean continuous) {
-        double[][] probabilities =
-            new double[similarities.length][similarities[0].length];
-        for (int i = 0; i < similarities.length; ++i) {
-            double sum = 0;
-            for (int j = 0; j < similarities[i].length; ++j) {
-                if (similarities[i][j] >= similarityThreshold) {
-                    if (continuous) {
-                        probabilities[i][j] = similarities[i][j];
-                        sum += similarities[i][j];
-                    } else {
-                        probabilities[i][j] = 1;
-                        sum += 1;
-                    }
-                } else {
-                    probabilities[i][j] = 0;
-                }
-            }
-            for (int j = 0; j < similarities[i].length; ++j) {
-            	if (sum == 0.0) {
-            		//throw new IllegalArgumentException("Division by zero.");
-            		sum = 1; // does not matter, everything is zero, but must be non-zero.
-            	}
-            	
-                probabilities[i][j] /= sum;
-            }
-        }
-        return probabilities;
-    }
-
-    /** Multiplies two matrices. So Exciting!*/
-    private static double[][] multMatrix(double[][] first,
-                                         double[][] second) {
-        if (first.length == 0 || second.length == 0) {
-            return null;
-        }
-        if (first[0].length != second.length) {
-            return null;
-        }
-        double[][] result = new double[first.length][second[0].length];
-        for (int i = 0; i < first.length; ++i) {
-            for (int j = 0; j < second[0].length; ++j) {
-                double sum = 0;
-                for (int k = 0; k < second.length; ++k) {
-                    sum += first[i][k]*second[k][j];
-                }
-                result[i][j] = sum;
-            }
-        }
-        return result;
-    }
-
-    /** Transposes a matrix. This is really complicated stuff. */
-    private static double[][] transposeMatrix(double[][] matrix) {
-        if (matrix.length == 0) {
-            return null;
-        }
-        double[][] result = new double[matrix[0].length][matrix.length];
-        for (int i = 0; i < result.length; ++i) {
-            for (int j = 0; j < result[i].length; ++j) {
-                result[i][j] = matrix[j][i];
+        TransitionMatrix.Builder builder =
+            new TransitionMatrix.Builder(data.size(),
+                                         similarityThreshold,
+                                         continuous);
+        for (int i = 0; i < data.size(); ++i) {
+            for (int j = 0; j <= i; ++j) {
+                builder.add(i, j, data.get(i).similarity(data.get(j)));
             }
         }
-        return result;
+        return builder.build();
     }
 
     /**
      * Solves for an eigenvector of a stochastic matrix using the power
-     * iteration algorithm.
+     * iteration algorithm (with the damping factor of PageRank).
      *
      * For future reference, when a paper writes "M^T", that does not mean "M
      * raised to the power of T," even if there is a variable called "t" right
      * there. Instead, it means "M transpose." Durrr.
      *
+     * The vectors are allocated once and swapped between iterations.
+     *
      * @param stochasticMatrix the matrix to get the first eigenvector of
-     * @param size how many data we've got
-     * @param epsilon power iteration will stop when the difference between
-     * iterations is less than this.
+     * @param epsilon power iteration will stop when the L1 distance between
+     * consecutive iterations is less than this.
      * @param maxIterations the maximum number of iterations for which this is
      * allowed to run. (Yeah, proper grammar right there)
+     * @param parallel whether the matrix-vector products may use all
+     * available cores.
      */
-    private static double[] powerIteration(double[][] stochasticMatrix,
-                                           int size,
+    private static double[] powerIteration(TransitionMatrix stochasticMatrix,
                                            double epsilon,
-                                           int maxIterations) {
-        double[][] currentMatrix = transposeMatrix(stochasticMatrix);
-        double[][] currentVector = new double[size][1];
-        double[][] previousVector;
-        for (int i = 0; i < size; ++i) {
-            currentVector[i][0] = 1.0 / size;
-        }
-        //for(int i = 0; i < currentMatrix.length; i++)
-        //    for(int j = 0; j < currentMatrix[0].length; j++)
-        //        currentMatrix[i][j] = .15 / size + .85 * currentMatrix[i][j];
+                                           int maxIterations,
+                                           boolean parallel) {
+        int size = stochasticMatrix.size();
+        double[] currentVector = new double[size];
+        double[] nextVector = new double[size];
+        double[] buffer = new double[size];
+        Arrays.fill(currentVector, 1.0 / size);
+
         for (int i = 0; i < maxIterations; ++i) {
-            previousVector = currentVector;
-            for(int a = 0; a < currentVector.length; a++) currentVector[a][0] *= .85;
-            currentVector = multMatrix(currentMatrix, currentVector);
-            for(int a = 0; a < currentVector.length; a++) currentVector[a][0] += .15/size;
-            double error = 0;
+            stochasticMatrix.multiplyTransposed(currentVector, buffer, nextVector, parallel);
+            double residual = 0;
             for (int j = 0; j < size; ++j) {
-                error += Math.pow(currentVector[j][0]-previousVector[j][0], 2);
+                nextVector[j] = DAMPING * nextVector[j] + (1 - DAMPING) / size;
+                residual += Math.abs(nextVector[j] - currentVector[j]);
             }
-            if (error < Math.pow(epsilon, 2)) {
+
+            double[] tmp = currentVector;
+            currentVector = nextVector;
+            nextVector = tmp;
+
+            if (residual < epsilon) {
                 break;
             }
         }
-        double[] result = new double[size];
-        for (int i = 0; i < size; ++i) {
-            result[i] = currentVector[i][0];
-        }
-        return result;
+        return currentVector;
     }
 }
@@ -2,14 +2,9 @@ package edu.cloudy.nlp.ranking;
 
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.nlp.similarity.CoOccurrenceCounts;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * @author spupyrev
@@ -18,66 +13,40 @@ import java.util.Set;
 public class LexRankingAlgo implements RankingAlgo {
 	private static final double LEXRANK_THRESHOLD = 0.1;
 
+	//larger sets of words use all cores for the power iteration
+	private static final int PARALLEL_WORD_COUNT = 1000;
+
 	@Override
 	public void buildWeights(SWCDocument wordifier) {
-		Map<ItemPair<Word>, Double> coocNumber = initCoocNumber(wordifier);
-
 		List<Word> words = wordifier.getWords();
-		Map<SimilarWord, Word> wordMap = new HashMap<SimilarWord, Word>();
-
-		List<SimilarWord> similarWords = new ArrayList<SimilarWord>(words.size());
-		for (Word w : wordifier.getWords()) {
-			SimilarWord similarWord = new SimilarWord(w, coocNumber);
-			similarWords.add(similarWord);
-			wordMap.put(similarWord, w);
-		}
 
-		LexRankResults<SimilarWord> results = LexRanker.rank(similarWords, LEXRANK_THRESHOLD, true);
+		double[] scores = LexRanker.rank(transitionProbabilities(words), words.size() >= PARALLEL_WORD_COUNT);
 
-		double max = results.scores.get(results.rankedResults.get(0));
+		double max = 0;
+		for (double score : scores)
+			max = Math.max(max, score);
 
 		if (Double.isInfinite(max)) {
 			throw new IllegalArgumentException("Argument not suited for lexrank");
 		}
 
-		for (SimilarWord w : results.rankedResults) {
-			Word word = wordMap.get(w);
-			word.weight = results.scores.get(w) / max;
+		for (int i = 0; i < words.size(); i++) {
+			words.get(i).weight = scores[i] / max;
 		}
 	}
 
-	private Map<ItemPair<Word>, Double> initCoocNumber(SWCDocument wordifier) {
-		int n = wordifier.getWords().size();
-		double[][] sim = new double[n][n];
-
-		Map<ItemPair<Word>, Double> coocNumber = new HashMap<ItemPair<Word>, Double>();
-		for (int i = 0; i < n; i++)
-			for (int j = i; j < n; j++) {
-				Word w1 = wordifier.getWords().get(i);
-				Word w2 = wordifier.getWords().get(j);
-
-				Set<Integer> intersection = new HashSet<Integer>(w1.getSentences());
-				intersection.retainAll(w2.getSentences());
-				//Set<Integer> union = new HashSet<Integer>(w1.getSentences());
-				//union.addAll(w2.getSentences());
-
-				double res1 = intersection.size();
-				double res2 = 1;//union.size();
-				double res = res1 / res2;
-				coocNumber.put(new ItemPair<Word>(w1, w2), res);
-
-				sim[i][j] = sim[j][i] = res;
-			}
+	/**
+	 * Similarity of two words is the number of sentences containing both of them
+	 */
+	private TransitionMatrix transitionProbabilities(List<Word> words) {
+		TransitionMatrix.Builder builder = new TransitionMatrix.Builder(words.size(), LEXRANK_THRESHOLD, true);
 
-		/*for (int i = 0; i < n; i++) {
-			for (int j = 0; j < n; j++) {
-				System.out.printf(" %.2f,", sim[i][j]);
-			}
+		for (int i = 0; i < words.size(); i++)
+			builder.add(i, i, words.get(i).getSentenceCount());
 
-			System.out.println("");
-		}*/
+		new CoOccurrenceCounts(words).forEachPair((i, j, count) -> builder.add(i, j, count));
 
-		return coocNumber;
+		return builder.build();
 	}
 
 }
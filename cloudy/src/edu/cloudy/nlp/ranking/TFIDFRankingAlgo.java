@@ -2,12 +2,8 @@ package edu.cloudy.nlp.ranking;
 
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.utils.CommonUtils;
 
-import java.io.ObjectInputStream;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author spupyrev
@@ -15,29 +11,45 @@ import java.util.Map;
  */
 public class TFIDFRankingAlgo implements RankingAlgo
 {
+    //idf of the words missing in the corpus
+    private static final double UNKNOWN_IDF = 7;
+
+    private String idfTable;
+
     public TFIDFRankingAlgo()
     {
+        this(IDFTableRegistry.BROWN);
+    }
+
+    /**
+     * @param idfTable the name of a table in IDFTableRegistry
+     */
+    public TFIDFRankingAlgo(String idfTable)
+    {
+        this.idfTable = idfTable;
+    }
+
+    public String getIDFTable()
+    {
+        return idfTable;
+    }
+
+    public void setIDFTable(String idfTable)
+    {
+        this.idfTable = idfTable;
     }
 
     @Override
     public void buildWeights(SWCDocument document)
     {
-        Map<String, Double> idfMap = computeIDF();
+        IDFTable table = IDFTableRegistry.getByName(idfTable);
 
         List<Word> words = document.getWords();
 
         for (Word w : words)
         {
-            double df = w.getSentences().size();
-            double idf;
-            if (idfMap.containsKey(w.stem))
-            {
-                idf = idfMap.get(w.stem);
-            }
-            else
-            {
-                idf = 7;
-            }
+            double df = document.getTermFrequency(w);
+            double idf = table.getIDF(w.stem, UNKNOWN_IDF);
             w.weight = df * idf + 1;
         }
         double maxCount = -1;
@@ -50,29 +62,4 @@ public class TFIDFRankingAlgo implements RankingAlgo
             w.weight = w.weight / maxCount;
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private Map<String, Double> computeIDF()
-    {
-        Map<String, Double> cnt = new HashMap<String, Double>();
-        try
-        {
-            ObjectInputStream ois = new ObjectInputStream(CommonUtils.getResourceAsStream("corpus/brown.bin"));
-            cnt = (HashMap<String, Double>)ois.readObject();
-            ois.close();
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-            throw new RuntimeException(e);
-        }
-
-        Map<String, Double> idf = new HashMap<String, Double>();
-        for (String w : cnt.keySet())
-        {
-            double id = cnt.get(w);
-            idf.put(w, Math.log(500 / id));
-        }
-        return idf;
-    }
 }
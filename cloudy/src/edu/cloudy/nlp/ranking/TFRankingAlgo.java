@@ -16,9 +16,9 @@ public class TFRankingAlgo implements RankingAlgo
     {
         List<Word> words = wordifier.getWords();
 
-        double maxCount = words.stream().mapToDouble(w -> w.getSentences().size()).max().orElse(1);
+        double maxCount = words.stream().mapToDouble(w -> wordifier.getTermFrequency(w)).max().orElse(1);
 
         for (Word w : words)
-            w.weight = w.getSentences().size() / maxCount;
+            w.weight = wordifier.getTermFrequency(w) / maxCount;
     }
 }
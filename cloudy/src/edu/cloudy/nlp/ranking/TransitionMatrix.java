@@ -0,0 +1,167 @@
+package edu.cloudy.nlp.ranking;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Transition probabilities of a random walk on a graph of similar items (for LexRank):
+ *   - the thresholded similarities are kept in compressed sparse rows (both directions)
+ *   - a row is normalized lazily: only the inverses of the row sums are stored
+ * The similarities are assumed to be symmetric, so the transposed matrix
+ * is multiplied by pulling along the rows, which allows to split the rows between threads
+ */
+class TransitionMatrix
+{
+    //smaller matrices are always multiplied in the calling thread
+    private static final int MIN_PARALLEL_ENTRIES = 1 << 16;
+
+    private int n;
+    private int[] rowStart;
+    private int[] columns;
+    private double[] weights;
+    private double[] inverseRowSum;
+
+    private TransitionMatrix(int n, int[] rowStart, int[] columns, double[] weights)
+    {
+        this.n = n;
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.weights = weights;
+
+        inverseRowSum = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            double sum = 0;
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++)
+                sum += weights[k];
+
+            //a row without neighbors does not matter, everything is zero
+            inverseRowSum[i] = (sum != 0 ? 1.0 / sum : 0);
+        }
+    }
+
+    public int size()
+    {
+        return n;
+    }
+
+    /**
+     * Items with a positive transition probability from the i-th one (in increasing order)
+     */
+    public int[] neighbors(int i)
+    {
+        int count = 0;
+        int[] result = new int[rowStart[i + 1] - rowStart[i]];
+        for (int k = rowStart[i]; k < rowStart[i + 1]; k++)
+            if (weights[k] * inverseRowSum[i] > 0)
+                result[count++] = columns[k];
+
+        Arrays.sort(result, 0, count);
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * y = M^T x, where M is the (row-stochastic) transition matrix;
+     * scaled is a buffer of size n, none of the arrays is allocated
+     */
+    public void multiplyTransposed(double[] x, double[] scaled, double[] y, boolean parallel)
+    {
+        for (int i = 0; i < n; i++)
+            scaled[i] = x[i] * inverseRowSum[i];
+
+        if (parallel && columns.length >= MIN_PARALLEL_ENTRIES)
+            IntStream.range(0, n).parallel().forEach(j -> y[j] = pull(j, scaled));
+        else
+            for (int j = 0; j < n; j++)
+                y[j] = pull(j, scaled);
+    }
+
+    private double pull(int j, double[] scaled)
+    {
+        double sum = 0;
+        for (int k = rowStart[j]; k < rowStart[j + 1]; k++)
+            sum += weights[k] * scaled[columns[k]];
+
+        return sum;
+    }
+
+    /**
+     * Collects similarities of pairs of items (every pair at most once), dropping the ones below the threshold
+     */
+    static class Builder
+    {
+        private int n;
+        private double threshold;
+        private boolean continuous;
+
+        private int[] first = new int[16];
+        private int[] second = new int[16];
+        private double[] values = new double[16];
+        private int size = 0;
+
+        /**
+         * @param continuous whether to use the similarities as weights (or 1 for all pairs above the threshold)
+         */
+        Builder(int n, double threshold, boolean continuous)
+        {
+            this.n = n;
+            this.threshold = threshold;
+            this.continuous = continuous;
+        }
+
+        void add(int i, int j, double similarity)
+        {
+            if (similarity < threshold)
+                return;
+
+            double weight = (continuous ? similarity : 1);
+            if (weight == 0)
+                return;
+
+            if (size == values.length)
+            {
+                first = Arrays.copyOf(first, 2 * size);
+                second = Arrays.copyOf(second, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+
+            first[size] = i;
+            second[size] = j;
+            values[size] = weight;
+            size++;
+        }
+
+        TransitionMatrix build()
+        {
+            //counting sort by rows; off-diagonal pairs are stored in both rows
+            int[] rowStart = new int[n + 1];
+            for (int k = 0; k < size; k++)
+            {
+                rowStart[first[k] + 1]++;
+                if (first[k] != second[k])
+                    rowStart[second[k] + 1]++;
+            }
+            for (int i = 0; i < n; i++)
+                rowStart[i + 1] += rowStart[i];
+
+            int[] next = Arrays.copyOf(rowStart, n);
+            int[] columns = new int[rowStart[n]];
+            double[] weights = new double[rowStart[n]];
+            for (int k = 0; k < size; k++)
+            {
+                int p = next[first[k]]++;
+                columns[p] = second[k];
+                weights[p] = values[k];
+
+                if (first[k] != second[k])
+                {
+                    p = next[second[k]]++;
+                    columns[p] = first[k];
+                    weights[p] = values[k];
+                }
+            }
+
+            return new TransitionMatrix(n, rowStart, columns, weights);
+        }
+    }
+}
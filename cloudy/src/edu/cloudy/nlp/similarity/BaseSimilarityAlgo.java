@@ -1,20 +1,58 @@
 package edu.cloudy.nlp.similarity;
 
-import java.util.Map;
-
-import edu.cloudy.nlp.ItemPair;
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * @author spupyrev
  * Oct 18, 2014
  */
 public abstract class BaseSimilarityAlgo implements SimilarityAlgo
 {
+    //side of a square block of pairs evaluated by a single task
+    private static final int BLOCK_SIZE = 16;
+    //similarities of a band of rows are buffered before they are passed to the builder
+    private static final int MAX_BAND_VALUES = 1 << 20;
+
+    private boolean sparse = false;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    @Override
+    public void setSparse(boolean sparse)
+    {
+        this.sparse = sparse;
+    }
+
+    public boolean isSparse()
+    {
+        return sparse;
+    }
 
     @Override
-    public Map<ItemPair<Word>, Double> computeSimilarity(SWCDocument wordifier)
+    public boolean isNaturallySparse()
+    {
+        return false;
+    }
+
+    /**
+     * The pool evaluating pairs of words in computePairs; null means the calling thread
+     */
+    public void setPool(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    public ForkJoinPool getPool()
+    {
+        return pool;
+    }
+
+    @Override
+    public SimilarityMatrix computeSimilarity(SWCDocument wordifier)
     {
         run(wordifier);
         return getSimilarity();
@@ -22,5 +60,127 @@ public abstract class BaseSimilarityAlgo implements SimilarityAlgo
 
     protected abstract void run(SWCDocument wordifier);
 
-    protected abstract Map<ItemPair<Word>, Double> getSimilarity();
+    protected abstract SimilarityMatrix getSimilarity();
+
+    protected SimilarityMatrix.Builder createBuilder(List<Word> words)
+    {
+        if (sparse)
+            return new SparseSimilarityMatrix.Builder(words);
+
+        return new DenseSimilarityMatrix.Builder(words);
+    }
+
+    /**
+     * Similarity of the i-th and the j-th word; called concurrently, so it must be thread-safe
+     */
+    protected interface PairSimilarity
+    {
+        double similarity(int i, int j);
+    }
+
+    /**
+     * Evaluates the similarities of all pairs i < j of n words:
+     *   - the upper triangle is tiled into blocks which are evaluated in parallel on the pool
+     *   - the rows are processed in bands, so that only the values of a band are buffered
+     *   - the values are passed to the builder in the order of rows, by the calling thread
+     * Hence, the result does not depend on the number of threads
+     */
+    protected void computePairs(int n, SimilarityMatrix.Builder builder, PairSimilarity function)
+    {
+        int bandHeight = Math.max(1, MAX_BAND_VALUES / Math.max(n, 1) / BLOCK_SIZE) * BLOCK_SIZE;
+
+        for (int bandStart = 0; bandStart < n; bandStart += bandHeight)
+        {
+            int bandEnd = Math.min(n, bandStart + bandHeight);
+            double[] values = new double[(bandEnd - bandStart) * n];
+
+            BlockTask task = new BlockTask(n, bandStart, bandEnd, values, function);
+            if (pool != null)
+                pool.invoke(task);
+            else
+                task.computeSerially();
+
+            for (int i = bandStart; i < bandEnd; i++)
+                for (int j = i + 1; j < n; j++)
+                    builder.set(i, j, values[(i - bandStart) * n + j]);
+        }
+    }
+
+    /**
+     * Evaluates the blocks [firstBlock..lastBlock) of a band (in the row-major order of blocks);
+     * ranges of blocks are split in halves until a single block is left
+     */
+    private static class BlockTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 5526398470451924155L;
+
+        private int n;
+        private int bandStart;
+        private int bandEnd;
+        private double[] values;
+        private PairSimilarity function;
+
+        private int blockColumns;
+        private int firstBlock;
+        private int lastBlock;
+
+        BlockTask(int n, int bandStart, int bandEnd, double[] values, PairSimilarity function)
+        {
+            this.n = n;
+            this.bandStart = bandStart;
+            this.bandEnd = bandEnd;
+            this.values = values;
+            this.function = function;
+
+            blockColumns = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int blockRows = (bandEnd - bandStart + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            firstBlock = 0;
+            lastBlock = blockRows * blockColumns;
+        }
+
+        private BlockTask(BlockTask parent, int firstBlock, int lastBlock)
+        {
+            this.n = parent.n;
+            this.bandStart = parent.bandStart;
+            this.bandEnd = parent.bandEnd;
+            this.values = parent.values;
+            this.function = parent.function;
+            this.blockColumns = parent.blockColumns;
+            this.firstBlock = firstBlock;
+            this.lastBlock = lastBlock;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (lastBlock - firstBlock > 1)
+            {
+                int middle = (firstBlock + lastBlock) / 2;
+                invokeAll(new BlockTask(this, firstBlock, middle), new BlockTask(this, middle, lastBlock));
+                return;
+            }
+
+            if (firstBlock < lastBlock)
+                computeBlock(firstBlock);
+        }
+
+        void computeSerially()
+        {
+            for (int block = firstBlock; block < lastBlock; block++)
+                computeBlock(block);
+        }
+
+        private void computeBlock(int block)
+        {
+            int rowStart = bandStart + (block / blockColumns) * BLOCK_SIZE;
+            int rowEnd = Math.min(bandEnd, rowStart + BLOCK_SIZE);
+            int columnStart = (block % blockColumns) * BLOCK_SIZE;
+            int columnEnd = Math.min(n, columnStart + BLOCK_SIZE);
+
+            //blocks below the diagonal are empty
+            for (int i = rowStart; i < rowEnd; i++)
+                for (int j = Math.max(i + 1, columnStart); j < columnEnd; j++)
+                    values[(i - bandStart) * n + j] = function.similarity(i, j);
+        }
+    }
 }
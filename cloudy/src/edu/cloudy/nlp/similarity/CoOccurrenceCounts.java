@@ -0,0 +1,204 @@
+package edu.cloudy.nlp.similarity;
+
+import edu.cloudy.nlp.Word;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Numbers of sentences shared by pairs of words, computed in one pass over the sentences:
+ *   - the postings of the words are inverted into lists of words per sentence
+ *   - every pair of words of a sentence gets its count incremented
+ *
+ * The time is proportional to the number of co-occurring pairs (summed over the sentences),
+ * so pairs which never meet cost nothing. Counts are kept in a packed triangular array
+ * for small sets of words and in an open-addressing hash table otherwise
+ */
+public class CoOccurrenceCounts
+{
+    //larger sets of words use the hash table
+    private static final int MAX_DENSE_WORDS = 2048;
+
+    private int n;
+
+    //packed strict upper triangle (dense mode)
+    private int[] counts;
+
+    //keys are i * n + j for i < j (sparse mode)
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public CoOccurrenceCounts(List<Word> words)
+    {
+        n = words.size();
+        if (n <= MAX_DENSE_WORDS)
+            counts = new int[n * (n - 1) / 2 + 1];
+        else
+            initTable(1024);
+
+        count(words);
+    }
+
+    public int size()
+    {
+        return n;
+    }
+
+    /**
+     * number of sentences containing both the i-th and the j-th word (i != j)
+     */
+    public int get(int i, int j)
+    {
+        assert (i != j);
+        if (i > j)
+        {
+            int t = i;
+            i = j;
+            j = t;
+        }
+
+        if (counts != null)
+            return counts[offset(i, j)];
+
+        int slot = find((long)i * n + j);
+        return (keys[slot] != -1 ? values[slot] : 0);
+    }
+
+    /**
+     * Visits the pairs i < j with non-zero counts (in no particular order)
+     */
+    public void forEachPair(PairConsumer consumer)
+    {
+        if (counts != null)
+        {
+            for (int i = 0; i < n; i++)
+            {
+                int base = offset(i, i + 1);
+                for (int j = i + 1; j < n; j++)
+                {
+                    int c = counts[base + j - i - 1];
+                    if (c != 0)
+                        consumer.accept(i, j, c);
+                }
+            }
+        }
+        else
+        {
+            for (int slot = 0; slot < keys.length; slot++)
+                if (keys[slot] != -1)
+                    consumer.accept((int)(keys[slot] / n), (int)(keys[slot] % n), values[slot]);
+        }
+    }
+
+    public interface PairConsumer
+    {
+        void accept(int i, int j, int count);
+    }
+
+    private void count(List<Word> words)
+    {
+        //inverted index: sentence => words (in increasing order)
+        int sentenceCount = 0;
+        for (Word w : words)
+        {
+            int[] sentences = w.getSentences();
+            if (sentences.length > 0)
+                sentenceCount = Math.max(sentenceCount, sentences[sentences.length - 1] + 1);
+        }
+
+        int[] start = new int[sentenceCount + 1];
+        for (Word w : words)
+            for (int s : w.getSentences())
+                start[s + 1]++;
+        for (int s = 0; s < sentenceCount; s++)
+            start[s + 1] += start[s];
+
+        int[] next = Arrays.copyOf(start, sentenceCount);
+        int[] wordsOfSentence = new int[start[sentenceCount]];
+        for (int i = 0; i < n; i++)
+            for (int s : words.get(i).getSentences())
+                wordsOfSentence[next[s]++] = i;
+
+        //counting pairs
+        for (int s = 0; s < sentenceCount; s++)
+            for (int a = start[s]; a < start[s + 1]; a++)
+            {
+                int i = wordsOfSentence[a];
+                if (counts != null)
+                {
+                    int base = offset(i, i + 1) - i - 1;
+                    for (int b = a + 1; b < start[s + 1]; b++)
+                        counts[base + wordsOfSentence[b]]++;
+                }
+                else
+                {
+                    for (int b = a + 1; b < start[s + 1]; b++)
+                        increment((long)i * n + wordsOfSentence[b]);
+                }
+            }
+    }
+
+    private int offset(int i, int j)
+    {
+        //rows 0..i-1 of the strict upper triangle occupy (n-1) + (n-2) + ... + (n-i) cells
+        return (int)((long)i * (2 * n - i - 1) / 2) + (j - i - 1);
+    }
+
+    private void initTable(int capacity)
+    {
+        keys = new long[capacity];
+        Arrays.fill(keys, -1);
+        values = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private void increment(long key)
+    {
+        int slot = find(key);
+        if (keys[slot] != -1)
+        {
+            values[slot]++;
+            return;
+        }
+
+        keys[slot] = key;
+        values[slot] = 1;
+        //load factor is at most 1/2
+        if (++size * 2 > keys.length)
+            rehash();
+    }
+
+    private int find(long key)
+    {
+        int slot = spread(key) & mask;
+        while (keys[slot] != -1 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    private void rehash()
+    {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        initTable(2 * oldKeys.length);
+        for (int k = 0; k < oldKeys.length; k++)
+            if (oldKeys[k] != -1)
+            {
+                int slot = find(oldKeys[k]);
+                keys[slot] = oldKeys[k];
+                values[slot] = oldValues[k];
+                size++;
+            }
+    }
+
+    private static int spread(long key)
+    {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -2,54 +2,54 @@ package edu.cloudy.nlp.similarity;
 
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Similarity between words based on their co-occurence in the same sentences 
  */
 public class CosineCoOccurenceAlgo extends BaseSimilarityAlgo
 {
-    private Map<ItemPair<Word>, Double> similarity;
+    private SimilarityMatrix similarity;
 
     @Override
     protected void run(SWCDocument document)
     {
         List<Word> words = document.getWords();
 
-        similarity = new HashMap<ItemPair<Word>, Double>();
+        SimilarityMatrix.Builder builder = createBuilder(words);
 
-        for (int i = 0; i < words.size(); i++)
+        // count how many times every two words occur in the same sentence;
+        // pairs which never occur together keep zero similarity
+        CoOccurrenceCounts counts = new CoOccurrenceCounts(words);
+        counts.forEachPair((i, j, sharedSentences) ->
         {
             Word x = words.get(i);
-            Set<Integer> xSentences = new HashSet<Integer>(x.getSentences());
+            Word y = words.get(j);
 
-            for (int j = i + 1; j < words.size(); j++)
-            {
-                Word y = words.get(j);
-                Set<Integer> ySentences = new HashSet<Integer>(y.getSentences());
+            double xySimilarity = sharedSentences / Math.sqrt((double)x.getSentenceCount() * y.getSentenceCount());
+            assert (0 <= xySimilarity && xySimilarity <= 1.0);
 
-                // count how many times those two occur in the same sentence
-                Set<Integer> sharedSentences = new HashSet(xSentences);
-                sharedSentences.retainAll(ySentences);
+            builder.set(i, j, xySimilarity);
+        });
 
-                double xySimilarity = sharedSentences.size() / Math.sqrt((double)xSentences.size() * ySentences.size());
-                assert (0 <= xySimilarity && xySimilarity <= 1.0);
+        for (int i = 0; i < words.size(); i++)
+            builder.set(i, i, 1.0);
 
-                similarity.put(new ItemPair<Word>(x, y), xySimilarity);
-            }
+        similarity = builder.build();
+    }
 
-            similarity.put(new ItemPair<Word>(x, x), 1.0);
-        }
+    /**
+     * Only words sharing a sentence are similar
+     */
+    @Override
+    public boolean isNaturallySparse()
+    {
+        return true;
     }
 
     @Override
-    protected Map<ItemPair<Word>, Double> getSimilarity()
+    protected SimilarityMatrix getSimilarity()
     {
         return similarity;
     }
@@ -0,0 +1,104 @@
+package edu.cloudy.nlp.similarity;
+
+import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.nlp.Word;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Similarity matrix storing all pairs of words:
+ * the upper triangle (with the diagonal) is packed row by row into a single array
+ */
+public class DenseSimilarityMatrix extends SimilarityMatrix
+{
+    private int n;
+    private double[] values;
+
+    public DenseSimilarityMatrix(List<Word> words)
+    {
+        super(words);
+        n = words.size();
+        values = new double[n * (n + 1) / 2];
+    }
+
+    /**
+     * Creates a matrix from the map; missing pairs get zero similarity
+     */
+    public static DenseSimilarityMatrix fromMap(List<Word> words, Map<ItemPair<Word>, Double> similarity)
+    {
+        DenseSimilarityMatrix matrix = new DenseSimilarityMatrix(words);
+        for (int i = 0; i < words.size(); i++)
+            for (int j = i; j < words.size(); j++)
+            {
+                Double value = similarity.get(new ItemPair<Word>(words.get(i), words.get(j)));
+                if (value != null)
+                    matrix.set(i, j, value);
+            }
+
+        return matrix;
+    }
+
+    @Override
+    public DenseSimilarityMatrix project(List<Word> words)
+    {
+        int[] index = new int[words.size()];
+        for (int i = 0; i < words.size(); i++)
+            index[i] = indexOf(words.get(i));
+
+        DenseSimilarityMatrix matrix = new DenseSimilarityMatrix(words);
+        for (int i = 0; i < words.size(); i++)
+            for (int j = i; j < words.size(); j++)
+                if (index[i] != -1 && index[j] != -1)
+                    matrix.set(i, j, get(index[i], index[j]));
+
+        return matrix;
+    }
+
+    @Override
+    public double get(int i, int j)
+    {
+        return values[offset(i, j)];
+    }
+
+    @Override
+    public void set(int i, int j, double value)
+    {
+        values[offset(i, j)] = value;
+    }
+
+    public static class Builder implements SimilarityMatrix.Builder
+    {
+        private DenseSimilarityMatrix matrix;
+
+        public Builder(List<Word> words)
+        {
+            matrix = new DenseSimilarityMatrix(words);
+        }
+
+        @Override
+        public void set(int i, int j, double value)
+        {
+            matrix.set(i, j, value);
+        }
+
+        @Override
+        public SimilarityMatrix build()
+        {
+            return matrix;
+        }
+    }
+
+    private int offset(int i, int j)
+    {
+        if (i > j)
+        {
+            int t = i;
+            i = j;
+            j = t;
+        }
+
+        //rows 0..i-1 occupy n + (n-1) + ... + (n-i+1) cells
+        return (int)((long)i * (2 * n - i + 1) / 2) + (j - i);
+    }
+}
@@ -2,58 +2,56 @@ package edu.cloudy.nlp.similarity;
 
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Similarity between words based on their co-occurence in the same sentences 
  */
 public class JaccardCoOccurenceAlgo extends BaseSimilarityAlgo
 {
-    private Map<ItemPair<Word>, Double> similarity;
+    private SimilarityMatrix similarity;
 
     @Override
     protected void run(SWCDocument wordifier)
     {
         List<Word> words = wordifier.getWords();
 
-        similarity = new HashMap<ItemPair<Word>, Double>();
+        SimilarityMatrix.Builder builder = createBuilder(words);
 
-        for (int i = 0; i < words.size(); i++)
+        // just count how many times every two words occur in the same sentence;
+        // pairs which never occur together keep zero similarity
+        CoOccurrenceCounts counts = new CoOccurrenceCounts(words);
+        counts.forEachPair((i, j, sharedSentences) ->
         {
             Word x = words.get(i);
-            Set<Integer> xSentences = new HashSet<Integer>(x.getSentences());
-
-            for (int j = i + 1; j < words.size(); j++)
-            {
-                Word y = words.get(j);
-                Set<Integer> ySentences = new HashSet<Integer>(y.getSentences());
+            Word y = words.get(j);
 
-                Set<Integer> sharedSentences = new HashSet<Integer>(xSentences);
-                sharedSentences.retainAll(ySentences);
+            int unionSentences = x.getSentenceCount() + y.getSentenceCount() - sharedSentences;
 
-                Set<Integer> unionSentences = new HashSet<Integer>(xSentences);
-                unionSentences.addAll(ySentences);
+            double xySimilarity = ((double)sharedSentences) / (double)(unionSentences);
+            assert (0 <= xySimilarity && xySimilarity <= 1.0);
 
-                // just count how many times those two occur in the same sentence
-                double xySimilarity = ((double)sharedSentences.size()) / (double)(unionSentences.size());
-                assert (0 <= xySimilarity && xySimilarity <= 1.0);
+            builder.set(i, j, xySimilarity);
+        });
 
-                similarity.put(new ItemPair<Word>(x, y), xySimilarity);
-            }
+        for (int i = 0; i < words.size(); i++)
+            builder.set(i, i, 1.0);
 
-            similarity.put(new ItemPair<Word>(x, x), 1.0);
-        }
+        similarity = builder.build();
+    }
 
+    /**
+     * Only words sharing a sentence are similar
+     */
+    @Override
+    public boolean isNaturallySparse()
+    {
+        return true;
     }
 
     @Override
-    protected Map<ItemPair<Word>, Double> getSimilarity()
+    protected SimilarityMatrix getSimilarity()
     {
         return this.similarity;
     }
@@ -2,54 +2,136 @@ package edu.cloudy.nlp.similarity;
 
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.utils.Logger;
 import edu.cmu.lti.lexical_db.ILexicalDatabase;
 import edu.cmu.lti.lexical_db.NictWordNet;
 import edu.cmu.lti.ws4j.RelatednessCalculator;
 import edu.cmu.lti.ws4j.impl.Lin;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Lin's similarity algorithm
  * see D. Lin, "An information-theoretic definition of similarity"
+ * 
+ * Computed values are shared by all instances via a process-wide cache, which can be
+ * persisted between runs (see setSnapshotFile or the system property cloudy.relatedness.snapshot)
  */
 public class LexicalSimilarityAlgo extends BaseSimilarityAlgo
 {
-    private Map<ItemPair<Word>, Double> similarity;
+    private SimilarityMatrix similarity;
 
     private static ILexicalDatabase db = new NictWordNet();
     private static RelatednessCalculator rc = new Lin(db);
 
+    private static final int DEFAULT_CACHE_SIZE = 1 << 18;
+    private static RelatednessCache cache = new RelatednessCache(DEFAULT_CACHE_SIZE);
+
+    private static Path snapshotFile;
+    private static Thread snapshotHook;
+
+    static
+    {
+        String snapshot = System.getProperty("cloudy.relatedness.snapshot");
+        if (snapshot != null)
+            setSnapshotFile(Paths.get(snapshot));
+    }
+
     @Override
     protected void run(SWCDocument wordifier)
     {
         List<Word> words = wordifier.getWords();
-        similarity = new HashMap<ItemPair<Word>, Double>();
+        SimilarityMatrix.Builder builder = createBuilder(words);
+
+        //pairs are evaluated in parallel, but only the cached values are read concurrently
+        computePairs(words.size(), builder, (i, j) -> relatedness(words.get(i).word, words.get(j).word));
 
         for (int i = 0; i < words.size(); i++)
+            builder.set(i, i, 1.0);
+
+        similarity = builder.build();
+    }
+
+    private static double relatedness(String lemma1, String lemma2)
+    {
+        double sim = cache.get(lemma1, lemma2);
+        if (Double.isNaN(sim))
         {
-            Word x = words.get(i);
+            sim = calculate(lemma1, lemma2);
+            cache.put(lemma1, lemma2, sim);
+        }
 
-            for (int j = i + 1; j < words.size(); j++)
-            {
-                Word y = words.get(j);
+        return sim;
+    }
+
+    /**
+     * ws4j is not known to be thread-safe (and its lexical database is shared by all calculators),
+     * so the missing values are computed by one thread at a time
+     */
+    private static double calculate(String lemma1, String lemma2)
+    {
+        synchronized (rc)
+        {
+            return Math.max(0, rc.calcRelatednessOfWords(lemma1, lemma2));
+        }
+    }
 
-                ItemPair<Word> xyPair = new ItemPair<Word>(x, y);
+    public static RelatednessCache getCache()
+    {
+        return cache;
+    }
 
-                double sim = rc.calcRelatednessOfWords(x.word, y.word);
-                sim = Math.max(0, sim);
-                similarity.put(xyPair, sim);
+    /**
+     * Loads the cache from the file (if it exists) and saves it back to the file on shutdown;
+     * null disables saving
+     */
+    public static synchronized void setSnapshotFile(Path file)
+    {
+        snapshotFile = file;
+        if (file == null)
+            return;
+
+        if (Files.exists(file))
+        {
+            try
+            {
+                int count = cache.load(file);
+                Logger.println("loaded " + count + " relatedness values from '" + file + "'");
+            }
+            catch (IOException | RuntimeException e)
+            {
+                Logger.println("cannot load relatedness values from '" + file + "': " + e.getMessage());
             }
+        }
 
-            similarity.put(new ItemPair<Word>(x, x), 1.0);
+        if (snapshotHook == null)
+        {
+            snapshotHook = new Thread(LexicalSimilarityAlgo::saveSnapshot);
+            Runtime.getRuntime().addShutdownHook(snapshotHook);
+        }
+    }
+
+    private static synchronized void saveSnapshot()
+    {
+        if (snapshotFile == null)
+            return;
+
+        try
+        {
+            cache.save(snapshotFile);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
         }
     }
 
     @Override
-    protected Map<ItemPair<Word>, Double> getSimilarity()
+    protected SimilarityMatrix getSimilarity()
     {
         return similarity;
 
@@ -2,43 +2,46 @@ package edu.cloudy.nlp.similarity;
 
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class RandomSimilarityAlgo extends BaseSimilarityAlgo
 {
-    private Map<ItemPair<Word>, Double> similarity;
-    private static Random rnd = new Random(123);
+    private SimilarityMatrix similarity;
+    private long seed = 123;
+
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
 
     @Override
     protected void run(SWCDocument document)
     {
         List<Word> words = document.getWords();
 
-        similarity = new HashMap<ItemPair<Word>, Double>();
+        SimilarityMatrix.Builder builder = createBuilder(words);
         // compute the similarity matrix
 
-        for (int x = 0; x < words.size(); x++)
-            for (int y = (x + 1); y < words.size(); y++)
-            {
-                ItemPair<Word> xyPair = new ItemPair<Word>(words.get(x), words.get(y));
-                double weight = rnd.nextDouble();// / 10.0;
-                similarity.put(xyPair, weight);
-            }
+        //every pair has its own generator, so the values do not depend on the order of evaluation
+        int n = words.size();
+        computePairs(n, builder, (x, y) ->
+        {
+            double weight = new SplittableRandom(seed + (long)x * n + y).nextDouble();// / 10.0;
+            return weight;
+        });
 
         for (int x = 0; x < words.size(); x++)
         {
-            ItemPair<Word> pair = new ItemPair<Word>(words.get(x), words.get(x));
-            similarity.put(pair, 1.0);
+            builder.set(x, x, 1.0);
         }
+
+        similarity = builder.build();
     }
 
     @Override
-    protected Map<ItemPair<Word>, Double> getSimilarity()
+    protected SimilarityMatrix getSimilarity()
     {
         return similarity;
     }
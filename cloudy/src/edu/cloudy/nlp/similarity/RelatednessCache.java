@@ -0,0 +1,244 @@
+package edu.cloudy.nlp.similarity;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrent cache of relatedness values of pairs of lemmas:
+ *   - a pair is ordered (lexicographically), so (a, b) and (b, a) share an entry
+ *   - the cache is split into segments guarded by their own locks
+ *   - every segment evicts its least recently used entry when it is full
+ *   - the content can be saved to a memory-mapped file and loaded back
+ */
+public class RelatednessCache
+{
+    private static final int SEGMENT_COUNT = 16;
+
+    private static final int SNAPSHOT_MAGIC = 0x52454c31;
+
+    private Segment[] segments;
+    private int capacity;
+
+    private LongAdder hits = new LongAdder();
+    private LongAdder misses = new LongAdder();
+
+    public RelatednessCache(int capacity)
+    {
+        this.capacity = capacity;
+
+        //the capacity is distributed exactly, so a segment may hold nothing
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++)
+            segments[i] = new Segment(capacity / SEGMENT_COUNT + (i < capacity % SEGMENT_COUNT ? 1 : 0));
+    }
+
+    /**
+     * Returns the cached relatedness of the lemmas or NaN
+     */
+    public double get(String lemma1, String lemma2)
+    {
+        String key = key(lemma1, lemma2);
+        Segment segment = segmentFor(key);
+        Double value;
+        synchronized (segment)
+        {
+            value = segment.get(key);
+        }
+
+        if (value != null)
+            hits.increment();
+        else
+            misses.increment();
+
+        return (value != null ? value : Double.NaN);
+    }
+
+    public void put(String lemma1, String lemma2, double value)
+    {
+        put(key(lemma1, lemma2), value);
+    }
+
+    public void clear()
+    {
+        for (Segment segment : segments)
+            synchronized (segment)
+            {
+                segment.clear();
+            }
+
+        hits.reset();
+        misses.reset();
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for (Segment segment : segments)
+            synchronized (segment)
+            {
+                size += segment.size();
+            }
+
+        return size;
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("size=%d/%d hits=%d misses=%d", size(), capacity, getHitCount(), getMissCount());
+    }
+
+    /**
+     * Writes the entries to the file; the file is replaced at once, so that processes
+     * loading it never see a partial snapshot;
+     * layout: magic, count, then for every entry the key (length + UTF-8 bytes) and the value
+     */
+    public void save(Path file) throws IOException
+    {
+        List<byte[]> keys = new ArrayList<byte[]>();
+        List<Double> values = new ArrayList<Double>();
+        long length = 8;
+        for (Segment segment : segments)
+            synchronized (segment)
+            {
+                for (Map.Entry<String, Double> entry : segment.entrySet())
+                {
+                    byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    keys.add(key);
+                    values.add(entry.getValue());
+                    length += 4 + key.length + 8;
+                }
+            }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try (RandomAccessFile raf = new RandomAccessFile(tmp.toFile(), "rw"); FileChannel channel = raf.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(SNAPSHOT_MAGIC);
+            buffer.putInt(keys.size());
+            for (int i = 0; i < keys.size(); i++)
+            {
+                buffer.putInt(keys.get(i).length);
+                buffer.put(keys.get(i));
+                buffer.putDouble(values.get(i));
+            }
+            buffer.force();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds the entries of a file written by save (as long as there is space); nothing is added
+     * if the file is truncated or corrupt
+     * @return the number of loaded entries
+     */
+    public int load(Path file) throws IOException
+    {
+        List<String> keys = new ArrayList<String>();
+        List<Double> values = new ArrayList<Double>();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r"); FileChannel channel = raf.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != SNAPSHOT_MAGIC)
+                throw new IOException("'" + file + "' is not a relatedness snapshot");
+
+            int count = buffer.getInt();
+            if (count < 0)
+                throw new IOException("'" + file + "' is corrupt: negative entry count");
+
+            for (int i = 0; i < count; i++)
+            {
+                if (buffer.remaining() < 4)
+                    throw new IOException("'" + file + "' is truncated after " + i + " of " + count + " entries");
+
+                int keyLength = buffer.getInt();
+                if (keyLength < 0 || buffer.remaining() < (long)keyLength + 8)
+                    throw new IOException("'" + file + "' is truncated after " + i + " of " + count + " entries");
+
+                byte[] key = new byte[keyLength];
+                buffer.get(key);
+                keys.add(new String(key, StandardCharsets.UTF_8));
+                values.add(buffer.getDouble());
+            }
+
+            if (buffer.hasRemaining())
+                throw new IOException("'" + file + "' is corrupt: unexpected data after " + count + " entries");
+        }
+
+        int count = Math.min(keys.size(), capacity);
+        for (int i = 0; i < count; i++)
+            put(keys.get(i), values.get(i));
+
+        return count;
+    }
+
+    private void put(String key, double value)
+    {
+        Segment segment = segmentFor(key);
+        synchronized (segment)
+        {
+            segment.put(key, value);
+        }
+    }
+
+    private static String key(String lemma1, String lemma2)
+    {
+        if (lemma1.compareTo(lemma2) > 0)
+            return lemma2 + '\u0000' + lemma1;
+
+        return lemma1 + '\u0000' + lemma2;
+    }
+
+    private Segment segmentFor(String key)
+    {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENT_COUNT - 1)];
+    }
+
+    private static class Segment extends LinkedHashMap<String, Double>
+    {
+        private static final long serialVersionUID = 4035517398201276645L;
+
+        private int capacity;
+
+        Segment(int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Double> eldest)
+        {
+            return size() > capacity;
+        }
+    }
+}
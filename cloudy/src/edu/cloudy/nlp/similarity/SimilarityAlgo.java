@@ -1,12 +1,18 @@
 package edu.cloudy.nlp.similarity;
 
-import java.util.Map;
-
-import edu.cloudy.nlp.ItemPair;
 import edu.cloudy.nlp.SWCDocument;
-import edu.cloudy.nlp.Word;
 
 public interface SimilarityAlgo
 {
-    public Map<ItemPair<Word>, Double> computeSimilarity(SWCDocument wordifier);
+    public SimilarityMatrix computeSimilarity(SWCDocument wordifier);
+
+    /**
+     * Keep only non-zero similarities (for large sets of words)
+     */
+    public void setSparse(boolean sparse);
+
+    /**
+     * Whether most of the similarities are zero, so that keeping only the non-zero ones saves memory
+     */
+    public boolean isNaturallySparse();
 }
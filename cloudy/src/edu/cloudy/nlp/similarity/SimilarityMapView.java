@@ -0,0 +1,163 @@
+package edu.cloudy.nlp.similarity;
+
+import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.nlp.Word;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map view of a similarity matrix; every unordered pair of words (including a word with itself) is a key
+ */
+class SimilarityMapView extends AbstractMap<ItemPair<Word>, Double>
+{
+    private SimilarityMatrix matrix;
+
+    SimilarityMapView(SimilarityMatrix matrix)
+    {
+        this.matrix = matrix;
+    }
+
+    @Override
+    public int size()
+    {
+        int n = matrix.size();
+        return n * (n + 1) / 2;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return get(key) != null;
+    }
+
+    @Override
+    public Double get(Object key)
+    {
+        if (!(key instanceof ItemPair))
+            return null;
+
+        ItemPair<?> pair = (ItemPair<?>)key;
+        int i = indexOf(pair.getFirst());
+        int j = indexOf(pair.getSecond());
+        if (i == -1 || j == -1)
+            return null;
+
+        return matrix.get(i, j);
+    }
+
+    @Override
+    public Double put(ItemPair<Word> key, Double value)
+    {
+        Double old = get(key);
+        matrix.set(key.getFirst(), key.getSecond(), value);
+        return old;
+    }
+
+    @Override
+    public Set<Map.Entry<ItemPair<Word>, Double>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<ItemPair<Word>, Double>>()
+        {
+            @Override
+            public int size()
+            {
+                return SimilarityMapView.this.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<ItemPair<Word>, Double>> iterator()
+            {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    private int indexOf(Object word)
+    {
+        return (word instanceof Word ? matrix.indexOf((Word)word) : -1);
+    }
+
+    /**
+     * Iterates over pairs (i, j) with i <= j
+     */
+    private class EntryIterator implements Iterator<Map.Entry<ItemPair<Word>, Double>>
+    {
+        private int i = 0;
+        private int j = 0;
+
+        @Override
+        public boolean hasNext()
+        {
+            return i < matrix.size();
+        }
+
+        @Override
+        public Map.Entry<ItemPair<Word>, Double> next()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Map.Entry<ItemPair<Word>, Double> entry = new Entry(i, j);
+            if (++j == matrix.size())
+            {
+                i++;
+                j = i;
+            }
+
+            return entry;
+        }
+    }
+
+    private class Entry implements Map.Entry<ItemPair<Word>, Double>
+    {
+        private int i;
+        private int j;
+
+        Entry(int i, int j)
+        {
+            this.i = i;
+            this.j = j;
+        }
+
+        @Override
+        public ItemPair<Word> getKey()
+        {
+            return new ItemPair<Word>(matrix.getWords().get(i), matrix.getWords().get(j));
+        }
+
+        @Override
+        public Double getValue()
+        {
+            return matrix.get(i, j);
+        }
+
+        @Override
+        public Double setValue(Double value)
+        {
+            Double old = matrix.get(i, j);
+            matrix.set(i, j, value);
+            return old;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Map.Entry))
+                return false;
+
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>)o;
+            return getKey().equals(e.getKey()) && getValue().equals(e.getValue());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package edu.cloudy.nlp.similarity;
+
+import edu.cloudy.nlp.ItemPair;
+import edu.cloudy.nlp.Word;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Symmetric matrix of similarities between words:
+ *   - entries are indexed by word ordinals, that is, positions of the words in getWords()
+ *   - asMap() provides a (write-through) map view for the code working with word pairs
+ *   - neighbors() lists the non-zero entries of a row, so that sparse matrices can be
+ *     processed without touching every pair of words
+ */
+public abstract class SimilarityMatrix
+{
+    private List<Word> words;
+    private Map<Word, Integer> ordinals;
+
+    private Map<ItemPair<Word>, Double> mapView;
+
+    protected SimilarityMatrix(List<Word> words)
+    {
+        this.words = Collections.unmodifiableList(new ArrayList<Word>(words));
+
+        ordinals = new HashMap<Word, Integer>(2 * words.size());
+        for (int i = 0; i < words.size(); i++)
+            ordinals.put(words.get(i), i);
+    }
+
+    public List<Word> getWords()
+    {
+        return words;
+    }
+
+    public int size()
+    {
+        return words.size();
+    }
+
+    /**
+     * ordinal of the word or -1 if the word is not in the matrix
+     */
+    public int indexOf(Word word)
+    {
+        Integer index = ordinals.get(word);
+        return (index != null ? index : -1);
+    }
+
+    public abstract double get(int i, int j);
+
+    public abstract void set(int i, int j, double value);
+
+    /**
+     * Creates a matrix for the given words (a subset of words of this matrix, in any order);
+     * the pairs with unknown words get zero similarity
+     */
+    public abstract SimilarityMatrix project(List<Word> words);
+
+    /**
+     * Is the matrix storing only non-zero similarities
+     */
+    public boolean isSparse()
+    {
+        return false;
+    }
+
+    /**
+     * Ordinals j != i with non-zero similarity to the i-th word (in increasing order)
+     */
+    public int[] neighbors(int i)
+    {
+        int count = 0;
+        for (int j = 0; j < size(); j++)
+            if (j != i && get(i, j) != 0)
+                count++;
+
+        int[] res = new int[count];
+        count = 0;
+        for (int j = 0; j < size(); j++)
+            if (j != i && get(i, j) != 0)
+                res[count++] = j;
+
+        return res;
+    }
+
+    public double get(Word w1, Word w2)
+    {
+        return get(ordinal(w1), ordinal(w2));
+    }
+
+    public void set(Word w1, Word w2, double value)
+    {
+        set(ordinal(w1), ordinal(w2), value);
+    }
+
+    /**
+     * The matrix as a map from pairs of words to similarities
+     */
+    public Map<ItemPair<Word>, Double> asMap()
+    {
+        if (mapView == null)
+            mapView = new SimilarityMapView(this);
+
+        return mapView;
+    }
+
+    /**
+     * Collects the values of a matrix; the pairs which are not set get zero similarity
+     */
+    public interface Builder
+    {
+        void set(int i, int j, double value);
+
+        SimilarityMatrix build();
+    }
+
+    private int ordinal(Word word)
+    {
+        Integer index = ordinals.get(word);
+        if (index == null)
+            throw new IllegalArgumentException("word '" + word + "' is not in the matrix");
+
+        return index;
+    }
+}
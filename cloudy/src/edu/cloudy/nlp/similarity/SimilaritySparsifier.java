@@ -0,0 +1,134 @@
+package edu.cloudy.nlp.similarity;
+
+import java.util.List;
+
+import edu.cloudy.nlp.Word;
+
+/**
+ * Keeps only the strongest similarities of a matrix:
+ *   - for every word, at most k most similar words (all of them if k <= 0)
+ *   - only similarities which are at least the threshold
+ * A pair is kept if it is selected for either of its words, so the result is symmetric.
+ * The strongest neighbors of a word are found with a bounded heap; ties are broken
+ * in favor of smaller ordinals, so the result is deterministic
+ */
+public class SimilaritySparsifier
+{
+    private int k;
+    private double threshold;
+
+    public SimilaritySparsifier(int k, double threshold)
+    {
+        this.k = k;
+        this.threshold = threshold;
+    }
+
+    public int getK()
+    {
+        return k;
+    }
+
+    public double getThreshold()
+    {
+        return threshold;
+    }
+
+    public SparseSimilarityMatrix sparsify(SimilarityMatrix similarity)
+    {
+        List<Word> words = similarity.getWords();
+        int n = words.size();
+
+        SparseSimilarityMatrix.Builder builder = new SparseSimilarityMatrix.Builder(words);
+        int capacity = (k > 0 ? k : n);
+        int[] heapIndex = new int[capacity];
+        double[] heapValue = new double[capacity];
+
+        for (int i = 0; i < n; i++)
+        {
+            builder.set(i, i, similarity.get(i, i));
+
+            int size = 0;
+            for (int j : similarity.neighbors(i))
+            {
+                double value = similarity.get(i, j);
+                if (value < threshold)
+                    continue;
+
+                if (size < capacity)
+                {
+                    heapIndex[size] = j;
+                    heapValue[size] = value;
+                    siftUp(heapIndex, heapValue, size++);
+                }
+                else if (less(heapValue[0], heapIndex[0], value, j))
+                {
+                    //replace the weakest selected neighbor
+                    heapIndex[0] = j;
+                    heapValue[0] = value;
+                    siftDown(heapIndex, heapValue, size);
+                }
+            }
+
+            //a pair selected by both words is set twice (with the same value)
+            for (int t = 0; t < size; t++)
+                builder.set(i, heapIndex[t], heapValue[t]);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Is the neighbor (value1, index1) weaker than (value2, index2)
+     */
+    private static boolean less(double value1, int index1, double value2, int index2)
+    {
+        if (value1 != value2)
+            return value1 < value2;
+
+        return index1 > index2;
+    }
+
+    private static void siftUp(int[] heapIndex, double[] heapValue, int pos)
+    {
+        while (pos > 0)
+        {
+            int parent = (pos - 1) / 2;
+            if (!less(heapValue[pos], heapIndex[pos], heapValue[parent], heapIndex[parent]))
+                break;
+
+            swap(heapIndex, heapValue, pos, parent);
+            pos = parent;
+        }
+    }
+
+    private static void siftDown(int[] heapIndex, double[] heapValue, int size)
+    {
+        int pos = 0;
+        while (true)
+        {
+            int min = pos;
+            int left = 2 * pos + 1;
+            int right = left + 1;
+            if (left < size && less(heapValue[left], heapIndex[left], heapValue[min], heapIndex[min]))
+                min = left;
+            if (right < size && less(heapValue[right], heapIndex[right], heapValue[min], heapIndex[min]))
+                min = right;
+            if (min == pos)
+                break;
+
+            swap(heapIndex, heapValue, pos, min);
+            pos = min;
+        }
+    }
+
+    private static void swap(int[] heapIndex, double[] heapValue, int a, int b)
+    {
+        int ti = heapIndex[a];
+        heapIndex[a] = heapIndex[b];
+        heapIndex[b] = ti;
+
+        double tv = heapValue[a];
+        heapValue[a] = heapValue[b];
+        heapValue[b] = tv;
+    }
+}
@@ -0,0 +1,228 @@
+package edu.cloudy.nlp.similarity;
+
+import edu.cloudy.nlp.Word;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Similarity matrix storing only non-zero pairs of words (compressed sparse rows):
+ *   - the non-zero columns of the i-th row are columns[rowStart[i]..rowStart[i+1]) in increasing order
+ *   - every pair is stored in both rows, so the neighbors of a word are found without a search
+ *   - the diagonal is kept separately
+ *
+ * The set of non-zero pairs is fixed on construction: a new non-zero value can only be
+ * assigned to a pair which is already stored
+ */
+public class SparseSimilarityMatrix extends SimilarityMatrix
+{
+    private int n;
+    private double[] diagonal;
+
+    private int[] rowStart;
+    private int[] columns;
+    private double[] values;
+
+    private SparseSimilarityMatrix(List<Word> words, double[] diagonal, int[] rowStart, int[] columns, double[] values)
+    {
+        super(words);
+        this.n = words.size();
+        this.diagonal = diagonal;
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    @Override
+    public double get(int i, int j)
+    {
+        if (i == j)
+            return diagonal[i];
+
+        int pos = position(i, j);
+        return (pos >= 0 ? values[pos] : 0);
+    }
+
+    @Override
+    public void set(int i, int j, double value)
+    {
+        if (i == j)
+        {
+            diagonal[i] = value;
+            return;
+        }
+
+        int pos = position(i, j);
+        if (pos < 0)
+        {
+            if (value == 0)
+                return;
+
+            throw new UnsupportedOperationException("the pair (" + i + ", " + j + ") is not stored in the sparse matrix");
+        }
+
+        values[pos] = value;
+        values[position(j, i)] = value;
+    }
+
+    @Override
+    public boolean isSparse()
+    {
+        return true;
+    }
+
+    @Override
+    public int[] neighbors(int i)
+    {
+        return Arrays.copyOfRange(columns, rowStart[i], rowStart[i + 1]);
+    }
+
+    /**
+     * Number of non-zero pairs of distinct words
+     */
+    public int getNonZeroCount()
+    {
+        return columns.length / 2;
+    }
+
+    @Override
+    public SparseSimilarityMatrix project(List<Word> words)
+    {
+        int[] index = new int[words.size()];
+        int[] inverse = new int[n];
+        Arrays.fill(inverse, -1);
+        for (int i = 0; i < words.size(); i++)
+        {
+            index[i] = indexOf(words.get(i));
+            if (index[i] != -1)
+                inverse[index[i]] = i;
+        }
+
+        Builder builder = new Builder(words);
+        for (int i = 0; i < words.size(); i++)
+        {
+            if (index[i] == -1)
+                continue;
+
+            builder.set(i, i, diagonal[index[i]]);
+            for (int k = rowStart[index[i]]; k < rowStart[index[i] + 1]; k++)
+            {
+                int j = inverse[columns[k]];
+                if (j > i)
+                    builder.set(i, j, values[k]);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private int position(int i, int j)
+    {
+        int pos = Arrays.binarySearch(columns, rowStart[i], rowStart[i + 1], j);
+        return (pos >= 0 ? pos : -1);
+    }
+
+    /**
+     * Collects non-zero similarities; zero values are not stored, and every unordered
+     * pair is expected to be set at most once (otherwise, the last value is taken)
+     */
+    public static class Builder implements SimilarityMatrix.Builder
+    {
+        private List<Word> words;
+        private double[] diagonal;
+
+        //pairs in the order of insertion
+        private int[] first = new int[16];
+        private int[] second = new int[16];
+        private double[] pairValues = new double[16];
+        private int size;
+
+        public Builder(List<Word> words)
+        {
+            this.words = words;
+            this.diagonal = new double[words.size()];
+        }
+
+        @Override
+        public void set(int i, int j, double value)
+        {
+            if (i == j)
+            {
+                diagonal[i] = value;
+                return;
+            }
+
+            if (value == 0)
+                return;
+
+            if (size == first.length)
+            {
+                first = Arrays.copyOf(first, 2 * size);
+                second = Arrays.copyOf(second, 2 * size);
+                pairValues = Arrays.copyOf(pairValues, 2 * size);
+            }
+
+            first[size] = i;
+            second[size] = j;
+            pairValues[size] = value;
+            size++;
+        }
+
+        @Override
+        public SparseSimilarityMatrix build()
+        {
+            int n = words.size();
+
+            //counting sort of both directions of the pairs by rows
+            int[] rowStart = new int[n + 1];
+            for (int k = 0; k < size; k++)
+            {
+                rowStart[first[k] + 1]++;
+                rowStart[second[k] + 1]++;
+            }
+            for (int i = 0; i < n; i++)
+                rowStart[i + 1] += rowStart[i];
+
+            int[] next = Arrays.copyOf(rowStart, n);
+            int[] pairOfEntry = new int[2 * size];
+            for (int k = 0; k < size; k++)
+            {
+                pairOfEntry[next[first[k]]++] = k;
+                pairOfEntry[next[second[k]]++] = k;
+            }
+
+            //sorting every row by columns (stable, so that the last value of a duplicate wins)
+            int[] columns = new int[2 * size];
+            double[] values = new double[2 * size];
+            int[] newRowStart = new int[n + 1];
+            int count = 0;
+            for (int i = 0; i < n; i++)
+            {
+                int from = rowStart[i], to = rowStart[i + 1];
+                long[] keys = new long[to - from];
+                for (int k = from; k < to; k++)
+                {
+                    int pair = pairOfEntry[k];
+                    int column = (first[pair] == i ? second[pair] : first[pair]);
+                    keys[k - from] = ((long)column << 32) | pair;
+                }
+                Arrays.sort(keys);
+
+                newRowStart[i] = count;
+                for (int k = 0; k < keys.length; k++)
+                {
+                    int column = (int)(keys[k] >>> 32);
+                    if (k + 1 < keys.length && (int)(keys[k + 1] >>> 32) == column)
+                        continue;
+
+                    columns[count] = column;
+                    values[count] = pairValues[(int)keys[k]];
+                    count++;
+                }
+            }
+            newRowStart[n] = count;
+
+            return new SparseSimilarityMatrix(words, diagonal, newRowStart, Arrays.copyOf(columns, count), Arrays.copyOf(values, count));
+        }
+    }
+}
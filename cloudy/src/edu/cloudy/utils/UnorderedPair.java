@@ -14,7 +14,8 @@ public class UnorderedPair<A,B> {
     	int hashFirst = first != null ? first.hashCode() : 0;
     	int hashSecond = second != null ? second.hashCode() : 0;
 
-    	return (hashFirst + hashSecond) * (hashFirst + hashSecond);
+    	//symmetric, but (unlike a function of the sum) distinguishes pairs with equal sums
+    	return 31 * Math.min(hashFirst, hashSecond) + Math.max(hashFirst, hashSecond);
     }
 
     public boolean equals(Object other) {
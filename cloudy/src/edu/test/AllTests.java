@@ -16,6 +16,10 @@ import org.junit.runners.Suite.SuiteClasses;
         MDSTest.class,
         LexRankTest.class,
         GeometryTest.class,
+        StemmingTest.class,
+        DocumentTest.class,
+        SimilarityTest.class,
+        RankingTest.class,
         CMDToolTest.class })
 public class AllTests
 {
@@ -0,0 +1,207 @@
+package edu.test;
+
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.SWCDocument;
+import edu.cloudy.nlp.SWCIncrementalDocument;
+import edu.cloudy.nlp.SWCWindowedDocument;
+import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.ranking.TFRankingAlgo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Documents built from several pieces of text must agree with a document parsed at once;
+ * selection of the heaviest words must agree with sorting
+ */
+public class DocumentTest
+{
+    private static final int BATCH_LINES = 7;
+
+    @Test
+    public void testIncrementalDocument() throws IOException
+    {
+        List<String> lines = Files.readAllLines(Paths.get("data/test_long.txt"), StandardCharsets.UTF_8);
+
+        SWCDocument doc = new SWCDocument(String.join("\n", lines) + "\n");
+        doc.parse(new ParseOptions());
+
+        SWCIncrementalDocument incDoc = new SWCIncrementalDocument(new ParseOptions());
+        for (int i = 0; i < lines.size(); i += BATCH_LINES)
+        {
+            List<String> batch = lines.subList(i, Math.min(i + BATCH_LINES, lines.size()));
+            incDoc.append(String.join("\n", batch) + "\n");
+
+            //refreshing in between must not affect the statistics
+            incDoc.weightFilter(10, new TFRankingAlgo());
+        }
+
+        Assert.assertEquals(doc.getSentences().size(), incDoc.getSentenceCount());
+        Assert.assertEquals(describe(doc.getWords()), describe(incDoc.getAllWords()));
+
+        doc.weightFilter(50, new TFRankingAlgo());
+        incDoc.weightFilter(50, new TFRankingAlgo());
+        Assert.assertEquals(describe(doc.getWords()), describe(incDoc.getWords()));
+        for (int i = 0; i < doc.getWords().size(); i++)
+            Assert.assertEquals(doc.getWords().get(i).weight, incDoc.getWords().get(i).weight, 1e-9);
+    }
+
+    @Test
+    public void testIncrementalSnapshots()
+    {
+        SWCIncrementalDocument incDoc = new SWCIncrementalDocument(new ParseOptions());
+        incDoc.append("Drawing graphs.\nGraphs are drawn.\n");
+        incDoc.weightFilter(10, new TFRankingAlgo());
+        List<Word> words = new ArrayList<Word>(incDoc.getWords());
+        List<String> before = describe(words);
+        Set<Word> held = new HashSet<Word>(words);
+
+        //new occurrences change the postings and the most popular variant
+        incDoc.append("Graph, graph and graph.\nDrawing.\n");
+        incDoc.weightFilter(10, new TFRankingAlgo());
+
+        Assert.assertEquals(before, describe(words));
+        for (Word w : words)
+            Assert.assertTrue(held.contains(w));
+        Assert.assertNotEquals(before, describe(incDoc.getWords()));
+    }
+
+    @Test
+    public void testWindowedDocument() throws IOException
+    {
+        List<String> lines = Files.readAllLines(Paths.get("data/test_long.txt"), StandardCharsets.UTF_8);
+        List<String> batches = new ArrayList();
+        for (int i = 0; i < lines.size(); i += BATCH_LINES)
+            batches.add(String.join("\n", lines.subList(i, Math.min(i + BATCH_LINES, lines.size()))) + "\n");
+
+        //every batch stays in the window for 3 time units
+        SWCWindowedDocument winDoc = new SWCWindowedDocument(new ParseOptions(), 3000, 0);
+        for (int i = 0; i < batches.size(); i++)
+        {
+            winDoc.append(batches.get(i), 1000 * i);
+
+            SWCDocument doc = new SWCDocument(String.join("", batches.subList(Math.max(i - 2, 0), i + 1)));
+            doc.parse(new ParseOptions());
+
+            Assert.assertEquals(doc.getSentences().size(), winDoc.getSentenceCount());
+            Assert.assertEquals(summarize(doc.getWords()), summarize(winDoc.getAllWords()));
+        }
+
+        winDoc.advanceTime(1000 * (batches.size() + 2));
+        Assert.assertEquals(0, winDoc.getSentenceCount());
+        Assert.assertTrue(winDoc.getAllWords().isEmpty());
+    }
+
+    @Test
+    public void testWindowedSentenceIds()
+    {
+        //the window keeps 5 sentences of the stream
+        SWCWindowedDocument winDoc = new SWCWindowedDocument(new ParseOptions(), 5, 0);
+        for (int i = 0; i < 5000; i++)
+        {
+            winDoc.append("Drawing graphs number " + (i % 7) + ".", i);
+            if (i % 100 != 0)
+                continue;
+
+            Assert.assertEquals(Math.min(i + 1, 5), winDoc.getSentenceCount());
+            for (Word w : winDoc.getAllWords())
+                for (int id : w.getSentences())
+                    Assert.assertTrue(0 <= id && id < winDoc.getSentenceCount());
+        }
+    }
+
+    @Test
+    public void testDecayedDocument()
+    {
+        long halfLife = 1000;
+        SWCWindowedDocument winDoc = new SWCWindowedDocument(new ParseOptions(), 1000 * halfLife, halfLife);
+
+        //one occurrence per half-life, observed long enough to renormalize the counts
+        int steps = 200;
+        for (int i = 0; i < steps; i++)
+            winDoc.append("Visualization of graphs.", i * halfLife);
+
+        for (Word w : winDoc.getAllWords())
+        {
+            Assert.assertEquals(steps, w.getFrequency());
+            //sum of 1/2^k
+            Assert.assertEquals(2.0, winDoc.getTermFrequency(w), 1e-6);
+        }
+
+        winDoc.advanceTime((steps - 1) * halfLife + 2 * halfLife);
+        for (Word w : winDoc.getAllWords())
+            Assert.assertEquals(0.5, winDoc.getTermFrequency(w), 1e-6);
+    }
+
+    @Test
+    public void testSentencePostings()
+    {
+        Word w = new Word("dance", 1.0);
+        w.addSentence(1);
+        w.addSentence(3);
+        w.addSentence(3);
+
+        //reading the postings of a growing word does not change them
+        int[] before = w.getSentences();
+        w.addSentence(5);
+        Assert.assertArrayEquals(new int[] { 1, 3 }, before);
+        Assert.assertArrayEquals(new int[] { 1, 3, 5 }, w.getSentences());
+        Assert.assertEquals(4, w.getFrequency());
+    }
+
+    @Test
+    public void testSelectHeaviest()
+    {
+        Random rnd = new Random(1);
+        List<Word> words = new ArrayList<Word>();
+        for (int i = 0; i < 5000; i++)
+            words.add(new Word("w" + i, rnd.nextInt(100)));
+
+        //the selection must agree with a stable sort
+        List<Word> sorted = new ArrayList<Word>(words);
+        Collections.sort(sorted, Comparator.reverseOrder());
+
+        for (int k : new int[] { 0, 1, 10, 100, 4999, 5000, 6000 })
+        {
+            List<Word> selected = SWCDocument.selectHeaviest(words, k);
+            Assert.assertEquals(sorted.subList(0, Math.min(k, sorted.size())), selected);
+            for (int i = 0; i < selected.size(); i++)
+                Assert.assertSame(sorted.get(i), selected.get(i));
+        }
+    }
+
+    /**
+     * stems with frequencies and the number of sentences (ignoring the order, variants and sentence ids)
+     */
+    private List<String> summarize(List<Word> words)
+    {
+        List<String> res = new ArrayList();
+        for (Word w : words)
+            res.add(w.stem + " " + w.getFrequency() + " " + w.getSentenceCount());
+
+        Collections.sort(res);
+        return res;
+    }
+
+    private List<String> describe(List<Word> words)
+    {
+        List<String> res = new ArrayList();
+        for (Word w : words)
+            res.add(w.word + " " + w.stem + " " + w.getFrequency() + " " + Arrays.toString(w.getSentences()));
+
+        return res;
+    }
+}
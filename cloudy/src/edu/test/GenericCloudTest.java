@@ -5,7 +5,6 @@ import edu.cloudy.layout.packing.ForceDirectedPackingAlgo;
 import edu.cloudy.nlp.ParseOptions;
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
-import edu.cloudy.nlp.ItemPair;
 import edu.cloudy.nlp.ranking.LexRankingAlgo;
 import edu.cloudy.nlp.ranking.RankingAlgo;
 import edu.cloudy.nlp.ranking.TFIDFRankingAlgo;
@@ -14,6 +13,7 @@ import edu.cloudy.nlp.similarity.CosineCoOccurenceAlgo;
 import edu.cloudy.nlp.similarity.JaccardCoOccurenceAlgo;
 import edu.cloudy.nlp.similarity.LexicalSimilarityAlgo;
 import edu.cloudy.nlp.similarity.SimilarityAlgo;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -22,7 +22,6 @@ import org.junit.rules.Timeout;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -107,7 +106,7 @@ public class GenericCloudTest
     private WordGraph buildWordGraph(SWCDocument document, SimilarityAlgo similarityAlgo)
     {
         List<Word> words = document.getWords();
-        Map<ItemPair<Word>, Double> similarity = similarityAlgo.computeSimilarity(document);
+        SimilarityMatrix similarity = similarityAlgo.computeSimilarity(document);
 
         return new WordGraph(words, similarity);
     }
@@ -3,12 +3,14 @@ package edu.test;
 import edu.cloudy.geom.SWCRectangle;
 import edu.cloudy.layout.ContextPreservingAlgo;
 import edu.cloudy.layout.CycleCoverAlgo;
+import edu.cloudy.layout.LayoutAlgo;
 import edu.cloudy.layout.LayoutResult;
 import edu.cloudy.layout.SeamCarvingAlgo;
 import edu.cloudy.layout.StarForestAlgo;
 import edu.cloudy.layout.TagCloudRankAlgo;
 import edu.cloudy.layout.WordGraph;
 import edu.cloudy.layout.WordleAlgo;
+import edu.cloudy.layout.mds.ScalingAlgorithmRegistry;
 import edu.cloudy.layout.packing.ForceDirectedPackingAlgo;
 import edu.cloudy.nlp.Word;
 import edu.cloudy.nlp.ItemPair;
@@ -55,6 +57,19 @@ public class LayoutTest
         checkLayout(wordGraph, new StarForestAlgo().layout(wordGraph));
     }
 
+    @Test
+    public void testScalingAlgorithms()
+    {
+        WordGraph wordGraph = createRandomGraph(30);
+
+        for (String id : new String[] { "ds", "smacof", "cs", "lmds", "rlmds" })
+        {
+            LayoutAlgo algo = new ContextPreservingAlgo();
+            algo.setScalingAlgo(ScalingAlgorithmRegistry.getById(id));
+            checkLayout(wordGraph, algo.layout(wordGraph));
+        }
+    }
+
     private WordGraph createCycle()
     {
         Word a = new Word("Aaaa", 1.0);
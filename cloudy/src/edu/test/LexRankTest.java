@@ -1,6 +1,7 @@
 package edu.test;
 
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import edu.cloudy.nlp.ranking.LexRankResults;
@@ -55,6 +56,14 @@ public class LexRankTest
         {
             System.out.println(names.get(i) + ": " + (results.scores.get(items.get(i)) / max));
         }
+
+        //every item is connected to itself, so the scores form a distribution
+        double sum = 0;
+        for (DummyItem item : items)
+            sum += results.scores.get(item);
+        Assert.assertEquals(1.0, sum, 1e-9);
+        Assert.assertEquals(items.get(7), results.rankedResults.get(0));
+        Assert.assertEquals(Arrays.asList(items.get(0), items.get(1), items.get(5), items.get(7)), results.neighbors.get(items.get(0)));
     }
     
     static class DummyItem implements Similar<DummyItem>
@@ -1,12 +1,18 @@
 package edu.test;
 
 import edu.cloudy.geom.SWCPoint;
+import edu.cloudy.layout.LayoutUtils;
 import edu.cloudy.layout.mds.ClassicalScaling;
 import edu.cloudy.layout.mds.DistanceScaling;
+import edu.cloudy.layout.mds.LandmarkScaling;
+import edu.cloudy.layout.mds.MathUtils;
+import edu.cloudy.layout.mds.StressMajorization;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * @author spupyrev
  * Nov 13, 2014
@@ -55,6 +61,41 @@ public class MDSTest
         Assert.assertTrue(Double.isFinite(stress));
     }
 
+    @Test
+    public void testClassicalScaling4()
+    {
+        //large enough for parallel blocks; points in the plane are embedded exactly
+        double[][] d = planarDistances(600);
+
+        double[][] output = new ClassicalScaling().mds(d, 2);
+
+        checkOutput(d, output);
+        for (int i = 0; i < d.length; i += 7)
+            for (int j = 0; j < d.length; j += 11)
+                checkDistance(output, i, j, d[i][j]);
+    }
+
+    @Test
+    public void testClassicalScaling5()
+    {
+        //5 classes of points, distance 2 within a class and 1 across: more than two negative
+        //eigenvalues are larger in magnitude than the positive ones
+        int n = 60;
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                d[i][j] = (i == j ? 0 : (i % 5 == j % 5 ? 2 : 1));
+
+        double[][] output = new ClassicalScaling().mds(d, 2);
+
+        checkOutput(d, output);
+        for (int k = 0; k < 2; k++)
+            Assert.assertTrue(MathUtils.dot(output[k], output[k]) > 1e-3);
+
+        //distance scaling does not start from collapsed points (the stress of them is 2760)
+        Assert.assertTrue(DistanceScaling.stress(d, new DistanceScaling().mds(d, 2)) < 1000);
+    }
+
     @Test
     public void testDistanceScaling1()
     {
@@ -114,6 +155,156 @@ public class MDSTest
         Assert.assertTrue(Double.isFinite(stress));
     }
 
+    @Test
+    public void testStressMajorization1()
+    {
+        double[][] d = new double[3][3];
+        d[0][0] = d[1][1] = d[2][2] = 0;
+        d[0][1] = d[1][0] = 3;
+        d[0][2] = d[2][0] = 4;
+        d[1][2] = d[2][1] = 5;
+
+        StressMajorization smacof = new StressMajorization();
+        double[][] output = smacof.mds(d, 2, false);
+
+        checkOutput(d, output);
+        checkDistance(output, 0, 1, 3);
+        checkDistance(output, 0, 2, 4);
+        checkDistance(output, 1, 2, 5);
+        Assert.assertEquals(0, smacof.getStress(), 1e-6);
+    }
+
+    @Test
+    public void testStressMajorization2()
+    {
+        double[][] d = randomDistances(50);
+
+        StressMajorization smacof = new StressMajorization();
+        double[][] output = smacof.mds(d, 2);
+
+        checkOutput(d, output);
+        //the majorization starts from classical scaling and never increases the stress
+        double stress = DistanceScaling.stress(d, output);
+        Assert.assertTrue(stress <= DistanceScaling.stress(d, new ClassicalScaling().mds(d, 2)) + 1e-9);
+        Assert.assertEquals(stress / sumOfSquares(d), smacof.getStress(), 1e-6);
+    }
+
+    @Test
+    public void testStressMajorization3()
+    {
+        //large enough for parallel rows
+        double[][] d = randomDistances(600);
+
+        double[][] sequential = new StressMajorization(1e-3, false).mds(d, 2);
+        double[][] parallel = new StressMajorization(1e-3, true).mds(d, 2);
+
+        checkOutput(d, parallel);
+        for (int k = 0; k < 2; k++)
+            Assert.assertArrayEquals(sequential[k], parallel[k], 0.0);
+    }
+
+    @Test
+    public void testLandmarkScaling1()
+    {
+        //distances between points in the plane are reproduced from a few landmarks
+        double[][] d = planarDistances(300);
+
+        double[][] output = new LandmarkScaling(10).mds(d, 2);
+
+        checkOutput(d, output);
+        for (int i = 0; i < d.length; i += 7)
+            for (int j = 0; j < d.length; j += 11)
+                checkDistance(output, i, j, d[i][j]);
+    }
+
+    @Test
+    public void testLandmarkScaling2()
+    {
+        double[][] d = randomDistances(200);
+
+        //only the distances from the landmarks are requested
+        int[] calls = new int[1];
+        double[][] output = new LandmarkScaling(20).mds((i, j) -> {
+            calls[0]++;
+            return d[i][j];
+        }, d.length, 2);
+
+        checkOutput(d, output);
+        Assert.assertEquals(20 * d.length, calls[0]);
+
+        //with every point being a landmark, the result is classical scaling
+        checkOutput(d, new LandmarkScaling(500).mds(d, 2));
+        double[][] single = new double[1][1];
+        checkOutput(single, new LandmarkScaling().mds(single, 2));
+    }
+
+    @Test
+    public void testLandmarkRefinement()
+    {
+        double[][] d = clusteredDistances(400);
+
+        StressMajorization refined = new StressMajorization(new LandmarkScaling(20), 10);
+        double[][] output = refined.mds(d, 2);
+
+        checkOutput(d, output);
+        Assert.assertTrue(refined.getIterations() <= 10);
+        //landmark scaling alone is far from distance scaling on clustered words, the refinement is close
+        double stress = DistanceScaling.stress(d, output);
+        Assert.assertTrue(stress <= DistanceScaling.stress(d, new LandmarkScaling(20).mds(d, 2)));
+        Assert.assertTrue(stress <= 1.25 * DistanceScaling.stress(d, new DistanceScaling().mds(d, 2)));
+    }
+
+    private double[][] planarDistances(int n)
+    {
+        Random rnd = new Random(1);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            x[i] = 10 * rnd.nextDouble();
+            y[i] = 5 * rnd.nextDouble();
+        }
+
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                d[i][j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+        return d;
+    }
+
+    /**
+     * Words of 10 topics with distances as in WordGraph
+     */
+    private double[][] clusteredDistances(int n)
+    {
+        Random rnd = new Random(1);
+        int[] topic = new int[n];
+        for (int i = 0; i < n; i++)
+            topic[i] = rnd.nextInt(10);
+
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+            {
+                double sim = 0;
+                if (topic[i] == topic[j] && rnd.nextDouble() < 0.5)
+                    sim = 0.2 + 0.8 * rnd.nextDouble();
+                else if (topic[i] != topic[j] && rnd.nextDouble() < 0.02)
+                    sim = 0.2 * rnd.nextDouble();
+                d[i][j] = d[j][i] = LayoutUtils.idealDistanceConverter(sim);
+            }
+        return d;
+    }
+
+    private double sumOfSquares(double[][] d)
+    {
+        double sum = 0;
+        for (int i = 0; i < d.length; i++)
+            for (int j = i + 1; j < d.length; j++)
+                sum += d[i][j] * d[i][j];
+        return sum;
+    }
+
     private double[][] randomDistances(int n)
     {
         double[][] d = new double[n][n];
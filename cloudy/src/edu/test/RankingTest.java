@@ -0,0 +1,206 @@
+package edu.test;
+
+import edu.cloudy.main.IDFTableIndexer;
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.SWCDocument;
+import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.ranking.IDFTable;
+import edu.cloudy.nlp.ranking.IDFTableBuilder;
+import edu.cloudy.nlp.ranking.IDFTableRegistry;
+import edu.cloudy.nlp.ranking.TFIDFRankingAlgo;
+import edu.cloudy.utils.Logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * IDF tables must give the same frequencies in memory and when mapped from a file;
+ * tables built from a corpus must count every document once per word
+ */
+public class RankingTest
+{
+    @Test
+    public void testBrownTable() throws IOException
+    {
+        IDFTable brown = IDFTable.getBrown();
+        Assert.assertSame(brown, IDFTable.getBrown());
+        Assert.assertEquals(500, brown.getDocumentCount());
+        Assert.assertTrue(brown.size() > 1000);
+
+        String term = brown.getTerm(brown.size() / 2);
+        double df = brown.getDocumentFrequency(term);
+        Assert.assertTrue(df > 0);
+        Assert.assertEquals(Math.log(500 / df), brown.getIDF(term, 7), 1e-12);
+        Assert.assertEquals(7, brown.getIDF("no-such-term", 7), 0.0);
+
+        checkMapped(brown);
+    }
+
+    @Test
+    public void testMappedTable() throws IOException
+    {
+        Map<String, Double> frequencies = new HashMap<String, Double>();
+        frequencies.put("zebra", 1.0);
+        frequencies.put("apple", 12.0);
+        frequencies.put("app", 3.0);
+        frequencies.put("\u00e9t\u00e9", 4.0);
+        frequencies.put("\ud83d\ude00", 5.0);
+        frequencies.put("\uff21", 6.0);
+
+        IDFTable table = IDFTable.fromFrequencies(frequencies, 20);
+        Assert.assertEquals(12.0, table.getDocumentFrequency("apple"), 0.0);
+        Assert.assertEquals(0.0, table.getDocumentFrequency("apples"), 0.0);
+
+        IDFTable mapped = checkMapped(table);
+        Assert.assertEquals(20, mapped.getDocumentCount());
+        Assert.assertEquals(Math.log(20 / 3.0), mapped.getIDF("app", 0), 1e-12);
+        Assert.assertEquals(0.0, mapped.getDocumentFrequency("ap"), 0.0);
+        Assert.assertEquals(0.0, mapped.getDocumentFrequency(""), 0.0);
+    }
+
+    @Test
+    public void testIDFTableBuilder() throws IOException
+    {
+        Logger.doLogging = false;
+
+        List<String> corpus = Arrays.asList(
+                "Cats like milk. Cats sleep a lot.",
+                "Dogs like bones. My dog likes walking.",
+                "Birds sing in the morning.",
+                "Cats and dogs rarely like each other.");
+
+        IDFTableBuilder builder = new IDFTableBuilder(new ParseOptions());
+        builder.addDocuments(corpus.subList(0, 3).stream());
+        Assert.assertEquals(3, builder.getDocumentCount());
+
+        String cat = stem("cats");
+        String dog = stem("dogs");
+        IDFTable table = builder.build();
+        Assert.assertEquals(1.0, table.getDocumentFrequency(cat), 0.0);
+        Assert.assertEquals(1.0, table.getDocumentFrequency(dog), 0.0);
+
+        //incremental update of a saved table
+        Path file = Files.createTempFile("idf", ".bin");
+        try
+        {
+            builder.setRevision(3);
+            builder.save(file);
+            IDFTable previous = IDFTable.map(file);
+            IDFTableBuilder updater = new IDFTableBuilder(previous, new ParseOptions());
+            Assert.assertEquals(3, updater.getRevision());
+            updater.addDocument(corpus.get(3));
+            updater.setRevision(4);
+            updater.save(file);
+
+            //the file is replaced, so the previous version is still readable where it is mapped
+            Assert.assertEquals(3, previous.getDocumentCount());
+            Assert.assertEquals(1.0, previous.getDocumentFrequency(cat), 0.0);
+
+            IDFTable updated = IDFTable.map(file);
+            Assert.assertEquals(4, updated.getDocumentCount());
+            Assert.assertEquals(4, updated.getRevision());
+            Assert.assertEquals(2.0, updated.getDocumentFrequency(cat), 0.0);
+            Assert.assertEquals(2.0, updated.getDocumentFrequency(dog), 0.0);
+            Assert.assertEquals(Math.log(4 / 2.0), updated.getIDF(dog, 7), 1e-12);
+
+            //ranking with the named table: the rare word gets the larger weight
+            IDFTableRegistry.register("test", file);
+            SWCDocument document = new SWCDocument("Cats sing. Cats sing.");
+            document.parse(new ParseOptions());
+            new TFIDFRankingAlgo("test").buildWeights(document);
+            for (Word w : document.getWords())
+                Assert.assertEquals(w.stem.equals(cat) ? (2 * Math.log(2) + 1) / (2 * Math.log(4) + 1) : 1.0, w.weight, 1e-9);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testIDFTableIndexer() throws IOException
+    {
+        Path directory = Files.createTempDirectory("corpus");
+        Path table = directory.resolveSibling(directory.getFileName() + ".bin");
+        FileTime time = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        try
+        {
+            addFile(directory, "a.txt", "Cats like milk. Cats sleep a lot.", time);
+            addFile(directory, "b.txt", "Dogs like bones. My dog likes walking.", time);
+            IDFTableIndexer.main(new String[] { table.toString(), directory.toString() });
+            Assert.assertEquals(2, IDFTable.map(table).getDocumentCount());
+
+            //the files indexed before are not counted again
+            IDFTableIndexer.main(new String[] { table.toString(), directory.toString() });
+            Assert.assertEquals(2, IDFTable.map(table).getDocumentCount());
+
+            addFile(directory, "c.txt", "Cats and dogs rarely like each other.", FileTime.fromMillis(time.toMillis() + 1000));
+            IDFTableIndexer.main(new String[] { table.toString(), directory.toString() });
+            IDFTable updated = IDFTable.map(table);
+            Assert.assertEquals(3, updated.getDocumentCount());
+            Assert.assertEquals(2.0, updated.getDocumentFrequency(stem("cats")), 0.0);
+            Assert.assertEquals(time.toMillis() + 1000, updated.getRevision());
+        }
+        finally
+        {
+            try (Stream<Path> files = Files.list(directory))
+            {
+                for (Path file : files.collect(Collectors.toList()))
+                    Files.delete(file);
+            }
+            Files.delete(directory);
+            Files.deleteIfExists(table);
+        }
+    }
+
+    private void addFile(Path directory, String name, String text, FileTime time) throws IOException
+    {
+        Path file = directory.resolve(name);
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, time);
+    }
+
+    private String stem(String word)
+    {
+        SWCDocument document = new SWCDocument(word);
+        document.parse(new ParseOptions());
+        return document.getWords().get(0).stem;
+    }
+
+    private IDFTable checkMapped(IDFTable table) throws IOException
+    {
+        Path file = Files.createTempFile("idf", ".bin");
+        try
+        {
+            table.save(file);
+            IDFTable mapped = IDFTable.map(file);
+
+            Assert.assertEquals(table.size(), mapped.size());
+            Assert.assertEquals(table.getDocumentCount(), mapped.getDocumentCount());
+            for (int i = 0; i < table.size(); i++)
+            {
+                String term = table.getTerm(i);
+                Assert.assertEquals(table.getDocumentFrequency(term), mapped.getDocumentFrequency(term), 0.0);
+                Assert.assertEquals(table.getDocumentFrequency(mapped.getTerm(i)), mapped.getDocumentFrequency(mapped.getTerm(i)), 0.0);
+            }
+
+            return mapped;
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package edu.test;
+
+import edu.cloudy.clustering.ClusterResult;
+import edu.cloudy.clustering.KMeansPlusPlus;
+import edu.cloudy.graph.Graph;
+import edu.cloudy.layout.CycleCoverAlgo;
+import edu.cloudy.layout.LayoutResult;
+import edu.cloudy.layout.StarForestAlgo;
+import edu.cloudy.layout.WordGraph;
+import edu.cloudy.layout.WordGraphCache;
+import edu.cloudy.layout.packing.ForceDirectedPackingAlgo;
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.SWCDocument;
+import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.ranking.TFRankingAlgo;
+import edu.cloudy.nlp.similarity.BaseSimilarityAlgo;
+import edu.cloudy.nlp.similarity.CoOccurrenceCounts;
+import edu.cloudy.nlp.similarity.CosineCoOccurenceAlgo;
+import edu.cloudy.nlp.similarity.JaccardCoOccurenceAlgo;
+import edu.cloudy.nlp.similarity.LexicalSimilarityAlgo;
+import edu.cloudy.nlp.similarity.RandomSimilarityAlgo;
+import edu.cloudy.nlp.similarity.RelatednessCache;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
+import edu.cloudy.nlp.similarity.SimilaritySparsifier;
+import edu.cloudy.nlp.similarity.SparseSimilarityMatrix;
+import edu.cloudy.utils.Logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Sparse similarity matrices must be equivalent to the dense ones;
+ * co-occurrence counts must agree with the intersections of the postings;
+ * parallel evaluation of pairs must not depend on the number of threads;
+ * sparsification keeps the strongest neighbors of every word
+ */
+public class SimilarityTest
+{
+    @Test
+    public void testSparseCosine() throws FileNotFoundException
+    {
+        checkSparse(readDocument("data/test_long.txt", 150), new CosineCoOccurenceAlgo(), new CosineCoOccurenceAlgo());
+    }
+
+    @Test
+    public void testSparseJaccard() throws FileNotFoundException
+    {
+        checkSparse(readDocument("data/test_med.txt", 100), new JaccardCoOccurenceAlgo(), new JaccardCoOccurenceAlgo());
+    }
+
+    @Test
+    public void testParallelPairs() throws FileNotFoundException
+    {
+        SWCDocument document = readDocument("data/test_long.txt", 150);
+
+        checkParallel(document, () -> new LexicalSimilarityAlgo());
+        checkParallel(document, () -> new RandomSimilarityAlgo());
+    }
+
+    @Test
+    public void testRelatednessCache() throws IOException
+    {
+        RelatednessCache cache = new RelatednessCache(64);
+        cache.put("movie", "film", 0.75);
+        Assert.assertEquals(0.75, cache.get("film", "movie"), 0.0);
+        Assert.assertTrue(Double.isNaN(cache.get("movie", "dance")));
+
+        for (int i = 0; i < 1000; i++)
+            cache.put("word" + i, "word" + (i + 1), i);
+        Assert.assertTrue(cache.size() <= cache.getCapacity());
+
+        Path file = Files.createTempFile("relatedness", ".bin");
+        try
+        {
+            cache.save(file);
+
+            RelatednessCache loaded = new RelatednessCache(64);
+            Assert.assertEquals(cache.size(), loaded.load(file));
+            Assert.assertEquals(999.0, loaded.get("word1000", "word999"), 0.0);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTruncatedRelatednessSnapshot() throws IOException
+    {
+        RelatednessCache cache = new RelatednessCache(64);
+        for (int i = 0; i < 10; i++)
+            cache.put("word" + i, "word" + (i + 1), i);
+
+        Path file = Files.createTempFile("relatedness", ".bin");
+        try
+        {
+            cache.save(file);
+            byte[] content = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(content, content.length - 5));
+
+            RelatednessCache loaded = new RelatednessCache(64);
+            try
+            {
+                loaded.load(file);
+                Assert.fail("truncated snapshot is loaded");
+            }
+            catch (IOException e)
+            {
+            }
+            Assert.assertEquals(0, loaded.size());
+
+            //a corrupt snapshot is reported, not thrown
+            LexicalSimilarityAlgo.setSnapshotFile(file);
+            LexicalSimilarityAlgo.setSnapshotFile(null);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testCachedLexicalSimilarity() throws FileNotFoundException
+    {
+        SWCDocument document = readDocument("data/test_med.txt", 50);
+
+        LexicalSimilarityAlgo.getCache().clear();
+        SimilarityMatrix first = new LexicalSimilarityAlgo().computeSimilarity(document);
+        long misses = LexicalSimilarityAlgo.getCache().getMissCount();
+        SimilarityMatrix second = new LexicalSimilarityAlgo().computeSimilarity(document);
+
+        //the second run is served by the cache
+        Assert.assertEquals(misses, LexicalSimilarityAlgo.getCache().getMissCount());
+        for (int i = 0; i < first.size(); i++)
+            for (int j = 0; j < first.size(); j++)
+                Assert.assertEquals(first.get(i, j), second.get(i, j), 0.0);
+    }
+
+    @Test
+    public void testCoOccurrenceCounts()
+    {
+        //the packed array and the hash table
+        checkCounts(300);
+        checkCounts(2100);
+    }
+
+    @Test
+    public void testSparseBuilder()
+    {
+        List<Word> words = createWords(5);
+
+        SparseSimilarityMatrix.Builder builder = new SparseSimilarityMatrix.Builder(words);
+        builder.set(3, 1, 0.5);
+        builder.set(0, 4, 0.25);
+        builder.set(2, 3, 0.0);
+        builder.set(1, 3, 0.75);
+        for (int i = 0; i < words.size(); i++)
+            builder.set(i, i, 1.0);
+
+        SparseSimilarityMatrix matrix = builder.build();
+        Assert.assertEquals(2, matrix.getNonZeroCount());
+        Assert.assertEquals(0.75, matrix.get(3, 1), 1e-12);
+        Assert.assertEquals(0.75, matrix.get(words.get(1), words.get(3)), 1e-12);
+        Assert.assertEquals(0.25, matrix.get(4, 0), 1e-12);
+        Assert.assertEquals(0.0, matrix.get(2, 3), 1e-12);
+        Assert.assertEquals(1.0, matrix.get(2, 2), 1e-12);
+        Assert.assertArrayEquals(new int[] { 1 }, matrix.neighbors(3));
+        Assert.assertArrayEquals(new int[0], matrix.neighbors(2));
+
+        matrix.set(1, 3, 0.5);
+        Assert.assertEquals(0.5, matrix.get(3, 1), 1e-12);
+
+        //reversed order of the words
+        List<Word> reversed = new ArrayList<Word>(words);
+        Collections.reverse(reversed);
+        SimilarityMatrix projected = matrix.project(reversed);
+        Assert.assertTrue(projected.isSparse());
+        Assert.assertEquals(0.5, projected.get(1, 3), 1e-12);
+        Assert.assertEquals(0.25, projected.get(0, 4), 1e-12);
+        Assert.assertArrayEquals(new int[] { 4 }, projected.neighbors(0));
+    }
+
+    @Test
+    public void testSparsifier() throws FileNotFoundException
+    {
+        SWCDocument document = readDocument("data/test_long.txt", 150);
+        SimilarityMatrix dense = new CosineCoOccurenceAlgo().computeSimilarity(document);
+        int n = dense.size();
+
+        int k = 5;
+        double threshold = 0.05;
+        SparseSimilarityMatrix sparse = new SimilaritySparsifier(k, threshold).sparsify(dense);
+        Assert.assertTrue(sparse.getNonZeroCount() <= n * k);
+
+        List<List<Integer>> strongest = new ArrayList<List<Integer>>();
+        for (int i = 0; i < n; i++)
+            strongest.add(strongestNeighbors(dense, i, k, threshold));
+
+        for (int i = 0; i < n; i++)
+        {
+            Assert.assertEquals(dense.get(i, i), sparse.get(i, i), 0.0);
+            for (int j : strongest.get(i))
+                Assert.assertEquals(dense.get(i, j), sparse.get(i, j), 0.0);
+
+            //every kept pair is among the strongest neighbors of one of its words
+            for (int j : sparse.neighbors(i))
+            {
+                Assert.assertEquals(dense.get(i, j), sparse.get(i, j), 0.0);
+                Assert.assertTrue(strongest.get(i).contains(j) || strongest.get(j).contains(i));
+            }
+        }
+
+        //only the stored pairs become edges
+        WordGraph wordGraph = new WordGraph(new ArrayList<Word>(document.getWords()), sparse);
+        Assert.assertEquals(sparse.getNonZeroCount(), new Graph(wordGraph).edgeSet().size());
+
+        for (LayoutResult layout : Arrays.asList(new StarForestAlgo().layout(wordGraph), new CycleCoverAlgo().layout(wordGraph)))
+            for (Word w : document.getWords())
+                Assert.assertNotNull(layout.getWordPosition(w));
+    }
+
+    @Test
+    public void testShortestPaths() throws FileNotFoundException
+    {
+        SWCDocument document = readDocument("data/test_long.txt", 150);
+        SimilarityMatrix dense = new CosineCoOccurenceAlgo().computeSimilarity(document);
+        SimilarityMatrix sparse = new SimilaritySparsifier(3, 0.1).sparsify(dense);
+        int n = dense.size();
+
+        for (SimilarityMatrix matrix : Arrays.asList(dense, sparse))
+        {
+            WordGraph wordGraph = new WordGraph(new ArrayList<Word>(document.getWords()), matrix);
+
+            //Floyd-Warshall on the complete graph
+            double[][] expected = new double[n][n];
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    expected[i][j] = wordGraph.distance(i, j);
+            for (int k = 0; k < n; k++)
+                for (int i = 0; i < n; i++)
+                    for (int j = 0; j < n; j++)
+                        expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+
+            WordGraphCache cache = new WordGraphCache(wordGraph);
+            double[] sequential = cache.computeShortestPaths(false);
+            double[] parallel = cache.computeShortestPaths(true);
+            Assert.assertArrayEquals(sequential, parallel, 0.0);
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                {
+                    Assert.assertEquals(expected[i][j], sequential[i * n + j], 1e-9);
+                    Assert.assertEquals(sequential[i * n + j], wordGraph.shortestPath(i, j), 0.0);
+                }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSparseStructureIsFixed()
+    {
+        List<Word> words = createWords(3);
+
+        SparseSimilarityMatrix.Builder builder = new SparseSimilarityMatrix.Builder(words);
+        builder.set(0, 1, 0.5);
+        builder.build().set(1, 2, 0.5);
+    }
+
+    private List<Integer> strongestNeighbors(SimilarityMatrix matrix, int i, int k, double threshold)
+    {
+        List<Integer> neighbors = new ArrayList<Integer>();
+        for (int j : matrix.neighbors(i))
+            if (matrix.get(i, j) >= threshold)
+                neighbors.add(j);
+
+        //ties are broken by ordinals
+        neighbors.sort((a, b) -> matrix.get(i, a) != matrix.get(i, b) ? Double.compare(matrix.get(i, b), matrix.get(i, a)) : Integer.compare(a, b));
+        return neighbors.subList(0, Math.min(k, neighbors.size()));
+    }
+
+    private void checkSparse(SWCDocument document, BaseSimilarityAlgo denseAlgo, BaseSimilarityAlgo sparseAlgo)
+    {
+        List<Word> words = document.getWords();
+
+        sparseAlgo.setSparse(true);
+        SimilarityMatrix dense = denseAlgo.computeSimilarity(document);
+        SimilarityMatrix sparse = sparseAlgo.computeSimilarity(document);
+        Assert.assertFalse(dense.isSparse());
+        Assert.assertTrue(sparse.isSparse());
+
+        for (int i = 0; i < words.size(); i++)
+        {
+            for (int j = 0; j < words.size(); j++)
+                Assert.assertEquals(dense.get(i, j), sparse.get(i, j), 0.0);
+
+            Assert.assertArrayEquals(dense.neighbors(i), sparse.neighbors(i));
+        }
+
+        WordGraph denseGraph = new WordGraph(new ArrayList<Word>(words), dense);
+        WordGraph sparseGraph = new WordGraph(new ArrayList<Word>(words), sparse);
+        Assert.assertTrue(sparseGraph.isSparse());
+        for (Word w1 : words)
+        {
+            Assert.assertEquals(denseGraph.weightedDegree(w1), sparseGraph.weightedDegree(w1), 0.0);
+            Assert.assertArrayEquals(denseGraph.nonZeroAdjacency(w1), sparseGraph.nonZeroAdjacency(w1));
+            for (Word w2 : Arrays.asList(words.get(0), words.get(words.size() / 2)))
+            {
+                Assert.assertEquals(denseGraph.distance(w1, w2), sparseGraph.distance(w1, w2), 0.0);
+                Assert.assertEquals(denseGraph.shortestPath(w1, w2), sparseGraph.shortestPath(w1, w2), 1e-9);
+            }
+        }
+
+        //the index-based methods agree with the word-based ones
+        for (int i = 0; i < words.size(); i++)
+        {
+            Word w1 = words.get(i);
+            Assert.assertEquals(i, sparseGraph.indexOf(w1));
+            Assert.assertEquals(sparseGraph.weightedDegree(w1), sparseGraph.weightedDegree(i), 0.0);
+            Assert.assertArrayEquals(dense.neighbors(i), sparseGraph.adjacency(i));
+            for (int j = 0; j < words.size(); j++)
+            {
+                Assert.assertEquals(denseGraph.distance(w1, words.get(j)), denseGraph.distance(i, j), 0.0);
+                Assert.assertEquals(sparseGraph.distance(w1, words.get(j)), sparseGraph.distance(i, j), 0.0);
+            }
+            Assert.assertEquals(sparseGraph.shortestPath(w1, words.get(0)), sparseGraph.shortestPath(i, 0), 0.0);
+        }
+
+        ClusterResult denseClusters = new KMeansPlusPlus(5).run(denseGraph);
+        ClusterResult sparseClusters = new KMeansPlusPlus(5).run(sparseGraph);
+        Assert.assertEquals(denseClusters.getModularity(), sparseClusters.getModularity(), 1e-9);
+        for (Word w : words)
+            Assert.assertEquals(denseClusters.getCluster(w), sparseClusters.getCluster(w));
+
+        LayoutResult layout = new ForceDirectedPackingAlgo().layout(sparseGraph);
+        for (Word w : words)
+            Assert.assertNotNull(layout.getWordPosition(w));
+    }
+
+    private void checkParallel(SWCDocument document, Supplier<BaseSimilarityAlgo> algoFactory)
+    {
+        BaseSimilarityAlgo serialAlgo = algoFactory.get();
+        serialAlgo.setPool(null);
+        SimilarityMatrix expected = serialAlgo.computeSimilarity(document);
+
+        for (int threads : new int[] { 1, 3, 8 })
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try
+            {
+                for (boolean sparse : new boolean[] { false, true })
+                {
+                    BaseSimilarityAlgo algo = algoFactory.get();
+                    algo.setPool(pool);
+                    algo.setSparse(sparse);
+                    SimilarityMatrix actual = algo.computeSimilarity(document);
+
+                    for (int i = 0; i < expected.size(); i++)
+                        for (int j = 0; j < expected.size(); j++)
+                            Assert.assertEquals(expected.get(i, j), actual.get(i, j), 0.0);
+                }
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private void checkCounts(int n)
+    {
+        Random rnd = new Random(n);
+        List<Word> words = createWords(n);
+        for (int s = 0; s < 5 * n; s++)
+            for (int i = 0; i < n; i++)
+                if (rnd.nextInt(n) < 3)
+                    words.get(i).addSentence(s);
+
+        CoOccurrenceCounts counts = new CoOccurrenceCounts(words);
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+            {
+                Assert.assertEquals(words.get(i).intersectionSize(words.get(j)), counts.get(i, j));
+                Assert.assertEquals(counts.get(i, j), counts.get(j, i));
+            }
+
+        int[] pairs = new int[1];
+        counts.forEachPair((i, j, count) ->
+        {
+            Assert.assertTrue(i < j && count > 0);
+            Assert.assertEquals(words.get(i).intersectionSize(words.get(j)), count);
+            pairs[0]++;
+        });
+
+        int expected = 0;
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+                if (words.get(i).intersectionSize(words.get(j)) > 0)
+                    expected++;
+        Assert.assertEquals(expected, pairs[0]);
+    }
+
+    private List<Word> createWords(int n)
+    {
+        List<Word> words = new ArrayList<Word>();
+        for (int i = 0; i < n; i++)
+            words.add(new Word("word" + i, 1.0));
+
+        return words;
+    }
+
+    private SWCDocument readDocument(String filename, int maxWordCount) throws FileNotFoundException
+    {
+        Logger.doLogging = false;
+
+        Scanner scanner = new Scanner(new File(filename), "UTF-8");
+        StringBuilder sb = new StringBuilder();
+        while (scanner.hasNextLine())
+            sb.append(scanner.nextLine() + "\n");
+        scanner.close();
+
+        SWCDocument document = new SWCDocument(sb.toString());
+        document.parse(new ParseOptions());
+        document.weightFilter(maxWordCount, new TFRankingAlgo());
+
+        return document;
+    }
+}
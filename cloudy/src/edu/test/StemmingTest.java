@@ -0,0 +1,178 @@
+package edu.test;
+
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.StemCache;
+import edu.cloudy.nlp.TextUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stemming from several threads (with and without the stem cache) must give the same results as the serial one;
+ * guards the per-thread stemmers of TextUtils: the Snowball stemmers (per thread since the parallel parsing mode)
+ * and the reused Porter and Krovetz stemmers of the English fallback
+ */
+public class StemmingTest
+{
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+
+    private static final String[] LANGUAGES = { "en", "de", "fr", "ru", "es", "nl", "sv" };
+
+    private static final String[] WORDS = {
+            "dance",
+            "dancing",
+            "movie",
+            "building",
+            "matrix",
+            "matrices",
+            "visualization",
+            "visualized",
+            "running",
+            "generalizations",
+            "h\u00e4user",
+            "gesellschaften",
+            "nationales",
+            "continuellement",
+            "\u043a\u0440\u0430\u0441\u0438\u0432\u0435\u0439\u0448\u0438\u043c\u0438",
+            "\u0431\u0438\u0431\u043b\u0438\u043e\u0442\u0435\u043a\u0438",
+            "corriendo",
+            "ontwikkelingen",
+            "m\u00e4nniskorna" };
+
+    private static final String[] SUFFIXES = { "", "s", "es", "ed", "ing", "ly", "ness", "ation" };
+
+    @Test(timeout = 60000)
+    public void testConcurrentStemming() throws Exception
+    {
+        int cacheSize = TextUtils.getStemCacheSize();
+        try
+        {
+            //every word goes through the stemmers
+            TextUtils.setStemCacheSize(0);
+            runConcurrently();
+        }
+        finally
+        {
+            TextUtils.setStemCacheSize(cacheSize);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentCachedStemming() throws Exception
+    {
+        int cacheSize = TextUtils.getStemCacheSize();
+        try
+        {
+            //small cache to force evictions
+            TextUtils.setStemCacheSize(64);
+            runConcurrently();
+
+            StemCache cache = TextUtils.getStemCache("en");
+            Assert.assertTrue(cache.size() <= cache.getCapacity());
+            Assert.assertTrue(cache.getHitCount() > 0);
+            Assert.assertTrue(cache.getMissCount() > 0);
+        }
+        finally
+        {
+            TextUtils.setStemCacheSize(cacheSize);
+        }
+    }
+
+    @Test
+    public void testStemCacheCapacity()
+    {
+        for (int capacity : new int[] { 1, 5, 20 })
+        {
+            StemCache cache = new StemCache(capacity);
+            for (int i = 0; i < 1000; i++)
+                cache.put("word" + i, "stem" + i);
+
+            Assert.assertTrue(cache.size() <= capacity);
+        }
+    }
+
+    private void runConcurrently() throws Exception
+    {
+        List<String> words = generateWords();
+
+        Map<String, List<String>> expected = new HashMap();
+        for (String lang : LANGUAGES)
+            expected.put(lang, stemAll(words, createOptions(lang)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try
+        {
+            List<Future<Integer>> results = new ArrayList();
+            for (int t = 0; t < THREADS; t++)
+            {
+                final int seed = t;
+                results.add(executor.submit(() -> countMismatches(words, expected, seed)));
+            }
+
+            for (Future<Integer> result : results)
+                Assert.assertEquals(0, result.get().intValue());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private int countMismatches(List<String> words, Map<String, List<String>> expected, int seed)
+    {
+        Random rnd = new Random(seed);
+        List<String> langs = new ArrayList();
+        Collections.addAll(langs, LANGUAGES);
+
+        int mismatches = 0;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            //interleave languages differently in every thread
+            Collections.shuffle(langs, rnd);
+            for (String lang : langs)
+            {
+                if (!expected.get(lang).equals(stemAll(words, createOptions(lang))))
+                    mismatches++;
+            }
+        }
+
+        return mismatches;
+    }
+
+    private List<String> stemAll(List<String> words, ParseOptions options)
+    {
+        List<String> res = new ArrayList();
+        for (String w : words)
+            res.add(TextUtils.stem(w, options));
+
+        return res;
+    }
+
+    private List<String> generateWords()
+    {
+        List<String> res = new ArrayList();
+        for (String w : WORDS)
+            for (String suffix : SUFFIXES)
+                res.add(w + suffix);
+
+        return res;
+    }
+
+    private ParseOptions createOptions(String lang)
+    {
+        ParseOptions options = new ParseOptions();
+        options.setLanguage(lang);
+        return options;
+    }
+}
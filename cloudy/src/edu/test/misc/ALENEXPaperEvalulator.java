@@ -3,7 +3,6 @@ package edu.test.misc;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import edu.cloudy.layout.ContextPreservingAlgo;
 import edu.cloudy.layout.CycleCoverAlgo;
@@ -23,7 +22,6 @@ import edu.cloudy.metrics.SpaceMetric;
 import edu.cloudy.metrics.StressMetric;
 import edu.cloudy.metrics.TotalWeightMetric;
 import edu.cloudy.metrics.UniformAreaMetric;
-import edu.cloudy.nlp.ItemPair;
 import edu.cloudy.nlp.ParseOptions;
 import edu.cloudy.nlp.SWCDocument;
 import edu.cloudy.nlp.Word;
@@ -31,6 +29,7 @@ import edu.cloudy.nlp.ranking.RankingAlgo;
 import edu.cloudy.nlp.ranking.TFRankingAlgo;
 import edu.cloudy.nlp.similarity.CosineCoOccurenceAlgo;
 import edu.cloudy.nlp.similarity.SimilarityAlgo;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
 import edu.cloudy.utils.Logger;
 import edu.cloudy.utils.WikipediaXMLReader;
 
@@ -111,7 +110,7 @@ public class ALENEXPaperEvalulator
 
                 // OK, give me the similarity
                 SimilarityAlgo coOccurenceAlgo = similarityAlgo;
-                Map<ItemPair<Word>, Double> similarity = coOccurenceAlgo.computeSimilarity(document);
+                SimilarityMatrix similarity = coOccurenceAlgo.computeSimilarity(document);
                 WordGraph wordGraph = new WordGraph(document.getWords(), similarity);
 
                 int runCount = 3;
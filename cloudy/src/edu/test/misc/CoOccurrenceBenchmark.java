@@ -0,0 +1,148 @@
+package edu.test.misc;
+
+import edu.cloudy.nlp.SWCDocument;
+import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.similarity.CosineCoOccurenceAlgo;
+import edu.cloudy.nlp.similarity.JaccardCoOccurenceAlgo;
+import edu.cloudy.nlp.similarity.SimilarityAlgo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the ways to compute co-occurrence similarities on synthetic documents
+ * (Zipf-distributed words, 20 sentences per word, 15 words per sentence):
+ *   - hashset: sentences of every pair are copied into sets and intersected with retainAll
+ *   - pairwise: sorted postings of every pair are merged
+ *   - inverted: the counts are collected in one pass over sentences (CoOccurrenceCounts)
+ *
+ * usage: CoOccurrenceBenchmark [word counts] (50,500,5000)
+ */
+@SuppressWarnings("all")
+public class CoOccurrenceBenchmark
+{
+    private static final int SENTENCES_PER_WORD = 20;
+    private static final int SENTENCE_LENGTH = 15;
+
+    //the hash set version is too slow for larger inputs
+    private static final int MAX_HASHSET_WORDS = 500;
+
+    private static final long MIN_RUNNING_TIME = 2000000000L;
+
+    public static void main(String[] args)
+    {
+        String sizes = (args.length > 0 ? args[0] : "50,500,5000");
+        for (String size : sizes.split(","))
+        {
+            int n = Integer.parseInt(size);
+            List<Word> words = generateWords(n, new Random(123));
+
+            System.out.println("words: " + n);
+            if (n <= MAX_HASHSET_WORDS)
+                run("  hashset", () -> hashSetCosine(words));
+            run("  pairwise", () -> pairwiseCosine(words));
+            run("  inverted cos", () -> compute(words, new CosineCoOccurenceAlgo(), false));
+            run("  inverted cos sparse", () -> compute(words, new CosineCoOccurenceAlgo(), true));
+            run("  inverted jac", () -> compute(words, new JaccardCoOccurenceAlgo(), false));
+        }
+    }
+
+    private static void run(String name, Runnable task)
+    {
+        //warm up
+        task.run();
+
+        int iterations = 0;
+        long start = System.nanoTime();
+        long time;
+        do
+        {
+            task.run();
+            iterations++;
+            time = System.nanoTime() - start;
+        }
+        while (time < MIN_RUNNING_TIME);
+
+        System.out.println(String.format("%-22s %10.3f ms/op", name, time / 1e6 / iterations));
+    }
+
+    private static double compute(List<Word> words, SimilarityAlgo algo, boolean sparse)
+    {
+        SWCDocument document = new SWCDocument("");
+        document.setWords(words);
+
+        algo.setSparse(sparse);
+        return algo.computeSimilarity(document).get(0, words.size() - 1);
+    }
+
+    private static double pairwiseCosine(List<Word> words)
+    {
+        double sum = 0;
+        for (int i = 0; i < words.size(); i++)
+            for (int j = i + 1; j < words.size(); j++)
+            {
+                Word x = words.get(i);
+                Word y = words.get(j);
+                sum += x.intersectionSize(y) / Math.sqrt((double)x.getSentenceCount() * y.getSentenceCount());
+            }
+
+        return sum;
+    }
+
+    private static double hashSetCosine(List<Word> words)
+    {
+        List<Set<Integer>> sentences = new ArrayList();
+        for (Word w : words)
+        {
+            Set<Integer> set = new HashSet();
+            for (int s : w.getSentences())
+                set.add(s);
+            sentences.add(set);
+        }
+
+        double sum = 0;
+        for (int i = 0; i < words.size(); i++)
+            for (int j = i + 1; j < words.size(); j++)
+            {
+                Set<Integer> shared = new HashSet(sentences.get(i));
+                shared.retainAll(sentences.get(j));
+                sum += shared.size() / Math.sqrt((double)sentences.get(i).size() * sentences.get(j).size());
+            }
+
+        return sum;
+    }
+
+    private static List<Word> generateWords(int n, Random rnd)
+    {
+        List<Word> words = new ArrayList();
+        for (int i = 0; i < n; i++)
+            words.add(new Word("w" + i, 1.0));
+
+        //Zipf distribution
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++)
+        {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        int sentenceCount = SENTENCES_PER_WORD * n;
+        for (int s = 0; s < sentenceCount; s++)
+        {
+            for (int k = 0; k < SENTENCE_LENGTH; k++)
+            {
+                int index = Arrays.binarySearch(cumulative, rnd.nextDouble() * total);
+                index = Math.min(n - 1, (index >= 0 ? index : -index - 1));
+                //repeated words of a sentence are registered once
+                words.get(index).addSentence(s);
+            }
+        }
+
+        return words;
+    }
+}
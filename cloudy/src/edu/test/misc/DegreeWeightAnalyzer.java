@@ -39,7 +39,7 @@ public class DegreeWeightAnalyzer
             doc.weightFilter(150, new TFRankingAlgo());
             //SimilarityAlgo coOccurenceAlgo = new CosineCoOccurenceAlgo();
             SimilarityAlgo coOccurenceAlgo = new RandomSimilarityAlgo();
-            Map<ItemPair<Word>, Double> similarity = coOccurenceAlgo.computeSimilarity(doc);
+            Map<ItemPair<Word>, Double> similarity = coOccurenceAlgo.computeSimilarity(doc).asMap();
             filter(doc.getWords(), similarity);
 
             //weights.addAll(similarity.values());
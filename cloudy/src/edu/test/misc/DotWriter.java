@@ -56,7 +56,7 @@ public class DotWriter
     private void extractSimilarities(SWCDocument wordifier, List<Word> words, final Map<ItemPair<Word>, Double> similarity)
     {
         SimilarityAlgo coOccurenceAlgo = new CosineCoOccurenceAlgo();
-        Map<ItemPair<Word>, Double> sim = coOccurenceAlgo.computeSimilarity(wordifier);
+        Map<ItemPair<Word>, Double> sim = coOccurenceAlgo.computeSimilarity(wordifier).asMap();
 
         for (Word w : wordifier.getWords())
             words.add(w);
@@ -0,0 +1,129 @@
+package edu.test.misc;
+
+import edu.cloudy.layout.LayoutUtils;
+import edu.cloudy.layout.mds.ClassicalScaling;
+import edu.cloudy.layout.mds.DistanceScaling;
+import edu.cloudy.layout.mds.LandmarkScaling;
+import edu.cloudy.layout.mds.RefinedLandmarkScaling;
+import edu.cloudy.layout.mds.ScalingAlgo;
+import edu.cloudy.layout.mds.StressMajorization;
+import edu.cloudy.utils.Logger;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the algorithms for the mds step of MDSAlgo on two kinds of similarities
+ * (distances as in WordGraph):
+ *   - random: every pair of words is similar with probability 0.2
+ *   - topics: words belong to 20 topics; words of a topic are similar with probability 0.5,
+ *     other pairs are weakly similar with probability 0.02
+ * prints the running time and the normalized stress of the result
+ *   - classical: classical scaling
+ *   - distance: distance scaling starting from classical scaling (the default of MDSAlgo)
+ *   - smacof: stress majorization starting from classical scaling
+ *   - landmark: landmark scaling with 100 landmarks (the default of MDSAlgo for large inputs)
+ *   - landmark+smacof: landmark scaling refined by 10 iterations of stress majorization (-Mrlmds)
+ *
+ * usage: MDSBenchmark [word counts] (100,500,1000,3000)
+ */
+@SuppressWarnings("all")
+public class MDSBenchmark
+{
+    private static final double DENSITY = 0.2;
+
+    private static final int TOPICS = 20;
+    private static final double TOPIC_DENSITY = 0.5;
+    private static final double CROSS_TOPIC_DENSITY = 0.02;
+
+    private static final long MIN_RUNNING_TIME = 2000000000L;
+
+    public static void main(String[] args)
+    {
+        Logger.doLogging = false;
+
+        String sizes = (args.length > 0 ? args[0] : "100,500,1000,3000");
+        for (String size : sizes.split(","))
+        {
+            int n = Integer.parseInt(size);
+
+            System.out.println("words: " + n + ", random");
+            run(generateDistances(n, new Random(123)));
+            System.out.println("words: " + n + ", topics");
+            run(generateTopicDistances(n, new Random(123)));
+        }
+    }
+
+    private static void run(double[][] d)
+    {
+        run("  classical", d, () -> new ClassicalScaling());
+        run("  distance", d, () -> new DistanceScaling());
+        run("  smacof", d, () -> new StressMajorization(1e-4, false));
+        run("  smacof parallel", d, () -> new StressMajorization(1e-4, true));
+        run("  landmark", d, () -> new LandmarkScaling());
+        run("  landmark+smacof", d, () -> new RefinedLandmarkScaling());
+    }
+
+    private static void run(String name, double[][] d, Supplier<ScalingAlgo> algo)
+    {
+        //warm up
+        double[][] res = algo.get().mds(d, 2);
+
+        int iterations = 0;
+        long start = System.nanoTime();
+        long time;
+        do
+        {
+            algo.get().mds(d, 2);
+            iterations++;
+            time = System.nanoTime() - start;
+        }
+        while (time < MIN_RUNNING_TIME);
+
+        System.out.println(String.format("%-22s %10.3f ms/op   stress %.5f", name, time / 1e6 / iterations, normalizedStress(d, res)));
+    }
+
+    private static double normalizedStress(double[][] d, double[][] res)
+    {
+        double sum = 0;
+        for (int i = 0; i < d.length; i++)
+            for (int j = i + 1; j < d.length; j++)
+                sum += d[i][j] * d[i][j];
+
+        return DistanceScaling.stress(d, res) / sum;
+    }
+
+    private static double[][] generateDistances(int n, Random rnd)
+    {
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+            {
+                double sim = (rnd.nextDouble() < DENSITY ? rnd.nextDouble() : 0);
+                d[i][j] = d[j][i] = LayoutUtils.idealDistanceConverter(sim);
+            }
+
+        return d;
+    }
+
+    private static double[][] generateTopicDistances(int n, Random rnd)
+    {
+        int[] topic = new int[n];
+        for (int i = 0; i < n; i++)
+            topic[i] = rnd.nextInt(TOPICS);
+
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+            {
+                double sim = 0;
+                if (topic[i] == topic[j] && rnd.nextDouble() < TOPIC_DENSITY)
+                    sim = 0.2 + 0.8 * rnd.nextDouble();
+                else if (topic[i] != topic[j] && rnd.nextDouble() < CROSS_TOPIC_DENSITY)
+                    sim = 0.2 * rnd.nextDouble();
+                d[i][j] = d[j][i] = LayoutUtils.idealDistanceConverter(sim);
+            }
+
+        return d;
+    }
+}
@@ -0,0 +1,129 @@
+package edu.test.misc;
+
+import edu.cloudy.nlp.SWCDocument;
+import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.ranking.LexRankingAlgo;
+import edu.cloudy.nlp.ranking.RankingAlgo;
+import edu.cloudy.nlp.ranking.TFIDFRankingAlgo;
+import edu.cloudy.nlp.ranking.TFRankingAlgo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the ranking step alone (without similarities and layouts) on synthetic vocabularies
+ * (Zipf-distributed words, 5 sentences per word, 15 words per sentence):
+ *   - sort: the previous weightFilter, sorting the whole vocabulary and taking a sublist
+ *   - select: top-k selection with a bounded heap (SWCDocument.selectHeaviest)
+ *   - tf, tf-idf, lex: weightFilter with the ranking algorithms
+ *
+ * usage: RankingBenchmark [vocabulary sizes] [kept words] (5000,50000 100)
+ */
+@SuppressWarnings("all")
+public class RankingBenchmark
+{
+    private static final int SENTENCES_PER_WORD = 5;
+    private static final int SENTENCE_LENGTH = 15;
+
+    //LexRank on larger vocabularies measures co-occurrences rather than ranking
+    private static final int MAX_LEX_WORDS = 5000;
+
+    private static final long MIN_RUNNING_TIME = 2000000000L;
+
+    public static void main(String[] args)
+    {
+        String sizes = (args.length > 0 ? args[0] : "5000,50000");
+        int k = (args.length > 1 ? Integer.parseInt(args[1]) : 100);
+        for (String size : sizes.split(","))
+        {
+            int n = Integer.parseInt(size);
+            List<Word> words = generateWords(n, new Random(123));
+            new TFRankingAlgo().buildWeights(createDocument(words));
+
+            System.out.println("words: " + n + ", kept: " + k);
+            run("  sort", () -> sortAll(words, k));
+            run("  select", () -> SWCDocument.selectHeaviest(words, k));
+            run("  tf", () -> filter(words, k, new TFRankingAlgo()));
+            run("  tf-idf", () -> filter(words, k, new TFIDFRankingAlgo()));
+            if (n <= MAX_LEX_WORDS)
+                run("  lex", () -> filter(words, k, new LexRankingAlgo()));
+        }
+    }
+
+    private static void run(String name, Runnable task)
+    {
+        //warm up
+        task.run();
+
+        int iterations = 0;
+        long start = System.nanoTime();
+        long time;
+        do
+        {
+            task.run();
+            iterations++;
+            time = System.nanoTime() - start;
+        }
+        while (time < MIN_RUNNING_TIME);
+
+        System.out.println(String.format("%-22s %10.3f ms/op", name, time / 1e6 / iterations));
+    }
+
+    private static List<Word> sortAll(List<Word> words, int k)
+    {
+        List<Word> sorted = new ArrayList(words);
+        Collections.sort(sorted, Comparator.reverseOrder());
+        return sorted.subList(0, Math.min(k, sorted.size()));
+    }
+
+    private static List<Word> filter(List<Word> words, int k, RankingAlgo algo)
+    {
+        SWCDocument document = createDocument(words);
+        document.weightFilter(k, algo);
+        return document.getWords();
+    }
+
+    private static SWCDocument createDocument(List<Word> words)
+    {
+        SWCDocument document = new SWCDocument("");
+        document.setWords(new ArrayList(words));
+        return document;
+    }
+
+    private static List<Word> generateWords(int n, Random rnd)
+    {
+        List<Word> words = new ArrayList();
+        for (int i = 0; i < n; i++)
+        {
+            Word w = new Word("w" + i, 1.0);
+            w.stem = w.word;
+            words.add(w);
+        }
+
+        //Zipf distribution
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++)
+        {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        int sentenceCount = SENTENCES_PER_WORD * n;
+        for (int s = 0; s < sentenceCount; s++)
+        {
+            for (int j = 0; j < SENTENCE_LENGTH; j++)
+            {
+                int index = Arrays.binarySearch(cumulative, rnd.nextDouble() * total);
+                index = Math.min(n - 1, (index >= 0 ? index : -index - 1));
+                words.get(index).addSentence(s);
+            }
+        }
+
+        return words;
+    }
+}
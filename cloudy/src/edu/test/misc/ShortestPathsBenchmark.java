@@ -0,0 +1,128 @@
+package edu.test.misc;
+
+import edu.cloudy.layout.WordGraph;
+import edu.cloudy.layout.WordGraphCache;
+import edu.cloudy.nlp.Word;
+import edu.cloudy.nlp.similarity.DenseSimilarityMatrix;
+import edu.cloudy.nlp.similarity.SimilarityMatrix;
+import edu.cloudy.nlp.similarity.SimilaritySparsifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the ways to compute all-pairs shortest paths of a word graph on random similarities
+ * (every pair is similar with probability 0.2; the sparse graphs keep 10 neighbors per word):
+ *   - scan: the previous version, Dijkstra's algorithm scanning all words for the closest one
+ *   - heap: Dijkstra's algorithm with a binary heap over non-zero similarities, one source at a time
+ *   - heap parallel: the same with sources processed in parallel
+ *
+ * usage: ShortestPathsBenchmark [word counts] (100,500,1000,2000)
+ */
+@SuppressWarnings("all")
+public class ShortestPathsBenchmark
+{
+    private static final double DENSITY = 0.2;
+    private static final int SPARSE_NEIGHBORS = 10;
+
+    //the scan version is too slow for larger inputs
+    private static final int MAX_SCAN_WORDS = 1000;
+
+    private static final long MIN_RUNNING_TIME = 2000000000L;
+
+    public static void main(String[] args)
+    {
+        String sizes = (args.length > 0 ? args[0] : "100,500,1000,2000");
+        for (String size : sizes.split(","))
+        {
+            int n = Integer.parseInt(size);
+            SimilarityMatrix dense = generateSimilarity(n, new Random(123));
+            SimilarityMatrix sparse = new SimilaritySparsifier(SPARSE_NEIGHBORS, 0).sparsify(dense);
+
+            for (SimilarityMatrix matrix : Arrays.asList(dense, sparse))
+            {
+                WordGraph wordGraph = new WordGraph(new ArrayList(matrix.getWords()), matrix);
+
+                System.out.println("words: " + n + (matrix.isSparse() ? " (sparse)" : " (dense)"));
+                if (n <= MAX_SCAN_WORDS)
+                    run("  scan", () -> scanShortestPaths(wordGraph));
+                run("  heap", () -> new WordGraphCache(wordGraph).computeShortestPaths(false));
+                run("  heap parallel", () -> new WordGraphCache(wordGraph).computeShortestPaths(true));
+            }
+        }
+    }
+
+    private static void run(String name, Runnable task)
+    {
+        //warm up
+        task.run();
+
+        int iterations = 0;
+        long start = System.nanoTime();
+        long time;
+        do
+        {
+            task.run();
+            iterations++;
+            time = System.nanoTime() - start;
+        }
+        while (time < MIN_RUNNING_TIME);
+
+        System.out.println(String.format("%-22s %10.3f ms/op", name, time / 1e6 / iterations));
+    }
+
+    private static double[] scanShortestPaths(WordGraph wordGraph)
+    {
+        int n = wordGraph.getWords().size();
+        double INF = 123456789.0;
+
+        double[] result = new double[n * n];
+        for (int s = 0; s < n; s++)
+        {
+            double[] dist = new double[n];
+            Arrays.fill(dist, INF);
+            dist[s] = 0;
+
+            boolean[] done = new boolean[n];
+            for (int k = 0; k < n; k++)
+            {
+                int v = -1;
+                for (int i = 0; i < n; i++)
+                    if (!done[i] && (v == -1 || dist[i] < dist[v]))
+                        v = i;
+
+                done[v] = true;
+                for (int i = 0; i < n; i++)
+                {
+                    double len = wordGraph.distance(v, i);
+                    if (dist[i] > dist[v] + len)
+                        dist[i] = dist[v] + len;
+                }
+            }
+
+            System.arraycopy(dist, 0, result, s * n, n);
+        }
+
+        return result;
+    }
+
+    private static SimilarityMatrix generateSimilarity(int n, Random rnd)
+    {
+        List<Word> words = new ArrayList();
+        for (int i = 0; i < n; i++)
+            words.add(new Word("w" + i, 1.0));
+
+        DenseSimilarityMatrix matrix = new DenseSimilarityMatrix(words);
+        for (int i = 0; i < n; i++)
+        {
+            matrix.set(i, i, 1.0);
+            for (int j = i + 1; j < n; j++)
+                if (rnd.nextDouble() < DENSITY)
+                    matrix.set(i, j, rnd.nextDouble());
+        }
+
+        return matrix;
+    }
+}
@@ -0,0 +1,147 @@
+package edu.test.misc;
+
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.StopwordSet;
+import edu.cloudy.nlp.TextUtils;
+import edu.cloudy.nlp.TokenFilter;
+import edu.cloudy.nlp.lang.ModelRegistry;
+import edu.cloudy.utils.Logger;
+
+import opennlp.tools.tokenize.Tokenizer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the allocation rate and the running time of the token filtering:
+ *   - legacy: toLowerCase of every token followed by the character and stopword checks
+ *   - TokenFilter: checks and lowercasing in a reusable buffer
+ *
+ * usage: TokenFilterBenchmark [text file] [iterations]
+ */
+@SuppressWarnings("all")
+public class TokenFilterBenchmark
+{
+    private static final int WARMUP_ITERATIONS = 20;
+
+    public static void main(String[] args) throws IOException
+    {
+        Logger.doLogging = false;
+
+        String filename = (args.length > 0 ? args[0] : "data/test_long.txt");
+        int iterations = (args.length > 1 ? Integer.parseInt(args[1]) : 200);
+
+        ParseOptions parseOptions = new ParseOptions();
+        List<String> tokens = tokenize(new String(Files.readAllBytes(Paths.get(filename)), StandardCharsets.UTF_8), parseOptions);
+        System.out.println("tokens: " + tokens.size());
+
+        run("legacy", tokens, parseOptions, iterations, false, new LegacyFilter(parseOptions)::filter);
+        run("buffer", tokens, parseOptions, iterations, false, new TokenFilter(parseOptions)::filter);
+        run("legacy+stem", tokens, parseOptions, iterations, true, new LegacyFilter(parseOptions)::filter);
+        run("buffer+stem", tokens, parseOptions, iterations, true, new TokenFilter(parseOptions)::filter);
+    }
+
+    private static List<String> tokenize(String text, ParseOptions parseOptions)
+    {
+        Tokenizer tokenizer = ModelRegistry.getTokenizer(parseOptions.getLanguage());
+
+        List<String> tokens = new ArrayList();
+        for (String sentence : ModelRegistry.getSentenceDetector(parseOptions.getLanguage()).sentDetect(text))
+            Collections.addAll(tokens, tokenizer.tokenize(sentence));
+
+        return tokens;
+    }
+
+    private static void run(String name, List<String> tokens, ParseOptions parseOptions, int iterations, boolean stem, Filter filter)
+    {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            iterate(tokens, parseOptions, stem, filter);
+
+        long bytesBefore = allocatedBytes();
+        long timeBefore = System.nanoTime();
+        long words = 0;
+        for (int i = 0; i < iterations; i++)
+            words += iterate(tokens, parseOptions, stem, filter);
+        long time = System.nanoTime() - timeBefore;
+        long bytes = allocatedBytes() - bytesBefore;
+
+        long processed = (long)tokens.size() * iterations;
+        double bytesPerToken = (double)bytes / processed;
+        double timePerToken = (double)time / processed;
+        System.out.println(String.format("%-12s words: %d  bytes/token: %.1f  ns/token: %.1f", name, words / iterations, bytesPerToken, timePerToken));
+    }
+
+    private static int iterate(List<String> tokens, ParseOptions parseOptions, boolean stem, Filter filter)
+    {
+        int words = 0;
+        for (String token : tokens)
+        {
+            String word = filter.filter(token);
+            if (word == null)
+                continue;
+
+            if (stem)
+                word = TextUtils.stem(word, parseOptions);
+
+            words++;
+        }
+
+        return words;
+    }
+
+    private static long allocatedBytes()
+    {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private interface Filter
+    {
+        String filter(String token);
+    }
+
+    /**
+     * the filtering used before TokenFilter
+     */
+    private static class LegacyFilter
+    {
+        private ParseOptions parseOptions;
+        private StopwordSet stopwords;
+
+        LegacyFilter(ParseOptions parseOptions)
+        {
+            this.parseOptions = parseOptions;
+            this.stopwords = TextUtils.getStopwords(parseOptions);
+        }
+
+        String filter(String token)
+        {
+            String currentWord = token.toLowerCase();
+            if (currentWord.length() < parseOptions.getMinWordLength())
+                return null;
+
+            char firstCharacter = currentWord.charAt(0);
+            if (!Character.isLetter(firstCharacter) && firstCharacter != '#')
+                return null;
+
+            for (int i = 1; i < currentWord.length(); i++)
+            {
+                char c = currentWord.charAt(i);
+                boolean isLetter = Character.isLetter(c) || c == '-';
+                if (parseOptions.isRemoveNumbers() && !isLetter)
+                    return null;
+            }
+
+            if (stopwords.contains(currentWord))
+                return null;
+
+            return currentWord;
+        }
+    }
+}
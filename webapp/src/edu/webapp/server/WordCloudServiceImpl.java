@@ -2,6 +2,7 @@ package edu.webapp.server;
 
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
+import edu.cloudy.nlp.lang.ModelRegistry;
 import edu.webapp.client.WordCloudService;
 import edu.webapp.server.db.DBUtils;
 import edu.webapp.server.utils.RandomGoogleTrendExtractor;
@@ -11,12 +12,23 @@ import edu.webapp.server.utils.RandomYoutubeUrlExtractor;
 import edu.webapp.shared.WCSettings;
 import edu.webapp.shared.WordCloud;
 
+import javax.servlet.ServletException;
+
 /**
  * The server side implementation of the RPC service.
  */
 @SuppressWarnings("serial")
 public class WordCloudServiceImpl extends RemoteServiceServlet implements WordCloudService
 {
+    @Override
+    public void init() throws ServletException
+    {
+        super.init();
+
+        //load nlp models before the first request
+        ModelRegistry.warmUp("en");
+    }
+
     public WordCloud buildWordCloud(String input, WCSettings setting) throws IllegalArgumentException
     {
         String ip = getThreadLocalRequest().getRemoteAddr();
@@ -21,7 +21,9 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author spupyrev
@@ -297,6 +299,28 @@ public class DBUtils
         });
     }
 
+    /**
+     * Source texts of (at most limit) clouds with ids greater than afterId, ordered by ids
+     */
+    public static Map<Integer, String> getSourceTexts(final int afterId, final int limit)
+    {
+        return executeDBAction((Connection c, Statement stmt) ->
+        {
+            PreparedStatement ps = c.prepareStatement("SELECT ID, SOURCE_TEXT FROM CLOUD WHERE ID > ? ORDER BY ID LIMIT ?;");
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            ResultSet rs = ps.executeQuery();
+
+            Map<Integer, String> texts = new LinkedHashMap<Integer, String>();
+            while (rs.next())
+            {
+                texts.put(rs.getInt("ID"), rs.getString("SOURCE_TEXT"));
+            }
+            rs.close();
+            return texts;
+        });
+    }
+
     public static void createDB()
     {
         executeDBAction((Connection c, Statement stmt) ->
@@ -0,0 +1,64 @@
+package edu.webapp.server.db;
+
+import edu.cloudy.nlp.ParseOptions;
+import edu.cloudy.nlp.ranking.IDFTable;
+import edu.cloudy.nlp.ranking.IDFTableBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Adds the source texts of the stored clouds to an IDF table (created if it does not exist);
+ * the id of the last processed cloud is saved as the revision of the table, and only clouds
+ * with greater ids are processed by the next run, so the table can be updated as new clouds arrive.
+ * The optional argument overrides the saved id
+ *
+ * usage: IDFTableUpdater table-file [last-processed-id]
+ */
+public class IDFTableUpdater
+{
+    private static final int BATCH_SIZE = 100;
+
+    public static void main(String[] args)
+    {
+        if (args.length < 1)
+        {
+            System.out.println("Usage: java -cp webapp.jar edu.webapp.server.db.IDFTableUpdater table-file [last-processed-id]");
+            System.exit(1);
+        }
+
+        try
+        {
+            Path table = Paths.get(args[0]);
+
+            IDFTableBuilder builder;
+            if (Files.exists(table))
+                builder = new IDFTableBuilder(IDFTable.map(table), new ParseOptions());
+            else
+                builder = new IDFTableBuilder(new ParseOptions());
+
+            int lastId = (args.length > 1 ? Integer.parseInt(args[1]) : (int)builder.getRevision());
+
+            while (true)
+            {
+                Map<Integer, String> texts = DBUtils.getSourceTexts(lastId, BATCH_SIZE);
+                if (texts.isEmpty())
+                    break;
+
+                builder.addDocuments(texts.values().stream());
+                for (int id : texts.keySet())
+                    lastId = id;
+            }
+
+            builder.setRevision(lastId);
+            builder.save(table);
+            System.out.println("documents: " + builder.getDocumentCount() + ", last processed id: " + lastId);
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}